@@ -0,0 +1,109 @@
+package fitness.studiomanager.benchmarks;
+
+import fitness.studiomanager.FitnessClass;
+import fitness.studiomanager.Member;
+import fitness.studiomanager.MemberList;
+import fitness.studiomanager.Profile;
+import fitness.studiomanager.Schedule;
+import fitness.studiomanager.StudioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the check-in path of the controller, as carried out headless by StudioService:
+ * recording and then removing the attendance or the guest of a member at their home studio.
+ * Each pair leaves the state as it was, so every invocation does the same work.
+ *
+ * @author Woogyeom Sim
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckInBenchmark {
+    private StudioService service;
+    private Profile[] profiles; // members whose membership has not expired
+    private FitnessClass[] classes; // a class at each member's home studio
+    private int next;
+
+    /**
+     * Loads 10k members and a schedule of every class at every studio, and picks the members to check in.
+     *
+     * @throws IOException If the schedule cannot be written or loaded.
+     */
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        Schedule schedule = new Schedule();
+        schedule.load(Fixtures.writeSchedule().toFile());
+        MemberList memberList = new MemberList();
+        for (Member member : Fixtures.members(10_000, 1)) {
+            memberList.add(member);
+        }
+        service = new StudioService(memberList, schedule);
+        int count = 0;
+        profiles = new Profile[memberList.getSize()];
+        classes = new FitnessClass[memberList.getSize()];
+        for (int i = 0; i < memberList.getSize(); i++) {
+            Member member = memberList.getMember(i);
+            if (!member.expired()) {
+                profiles[count] = member.getProfile();
+                classes[count] = schedule.findByStudio(member.getHomeStudio()).get(0);
+                count++;
+            }
+        }
+        profiles = Arrays.copyOf(profiles, count);
+        classes = Arrays.copyOf(classes, count);
+    }
+
+    /**
+     * Records a member as attending a class, then removes them.
+     *
+     * @return The result of the removal.
+     */
+    @Benchmark
+    public StudioService.Result recordAndRemoveAttendance() {
+        int i = nextIndex();
+        FitnessClass fitnessClass = classes[i];
+        service.recordAttendance(fitnessClass.getClassInfo(), fitnessClass.getInstructor(), fitnessClass.getStudio(), profiles[i]);
+        return service.removeAttendance(fitnessClass.getClassInfo(), fitnessClass.getInstructor(), fitnessClass.getStudio(), profiles[i]);
+    }
+
+    /**
+     * Records a guest of a member at a class, then removes the guest.
+     *
+     * @return The result of the removal.
+     */
+    @Benchmark
+    public StudioService.Result recordAndRemoveGuest() {
+        int i = nextIndex();
+        FitnessClass fitnessClass = classes[i];
+        service.recordGuest(fitnessClass.getClassInfo(), fitnessClass.getInstructor(), fitnessClass.getStudio(), profiles[i]);
+        return service.removeGuest(fitnessClass.getClassInfo(), fitnessClass.getInstructor(), fitnessClass.getStudio(), profiles[i]);
+    }
+
+    /**
+     * Returns the next member to check in, in turn.
+     *
+     * @return The index of the member.
+     */
+    private int nextIndex() {
+        int i = next;
+        next = next + 1 == profiles.length ? 0 : next + 1;
+        return i;
+    }
+}
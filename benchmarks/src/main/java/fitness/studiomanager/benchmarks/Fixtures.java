@@ -0,0 +1,90 @@
+package fitness.studiomanager.benchmarks;
+
+import fitness.studiomanager.Member;
+import fitness.studiomanager.RosterGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Provides the members and files of the benchmarks, generated by a RosterGenerator with its default options:
+ * distinct profiles, half Basic and a quarter each Family and Premium, and a fifth of memberships expired.
+ * The same seed always gives the same members.
+ *
+ * @author Woogyeom Sim
+ */
+public final class Fixtures {
+    /**
+     * Prevents instantiation.
+     */
+    private Fixtures() {
+    }
+
+    /**
+     * Generates members in memory.
+     *
+     * @param count The number of members.
+     * @param seed The seed of the generator.
+     * @return The members, as the rows of a member file written with the same seed.
+     */
+    public static Member[] members(int count, long seed) {
+        RosterGenerator generator = new RosterGenerator(seed);
+        Member[] members = new Member[count];
+        for (int i = 0; i < count; i++) {
+            members[i] = generator.member(i);
+        }
+        return members;
+    }
+
+    /**
+     * Writes generated members to a temporary file in the memberList.txt format, deleted when the JVM exits.
+     *
+     * @param count The number of members.
+     * @param seed The seed of the generator.
+     * @return The file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static Path writeMembers(int count, long seed) throws IOException {
+        Path file = Files.createTempFile("members-" + count + "-", ".txt");
+        file.toFile().deleteOnExit();
+        new RosterGenerator(seed).writeMembers(file, count);
+        return file;
+    }
+
+    /**
+     * Writes generated members to a temporary file like writeMembers, with the row number appended to every
+     * last name, so nearly every name is distinct and name lookups miss the parser's cache.
+     *
+     * @param count The number of members.
+     * @param seed The seed of the generator.
+     * @return The file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static Path writeMembersWithDistinctNames(int count, long seed) throws IOException {
+        Path file = writeMembers(count, seed);
+        List<String> lines = Files.readAllLines(file);
+        for (int row = 0; row < lines.size(); row++) {
+            String[] tokens = lines.get(row).split(" ");
+            tokens[2] += row;
+            lines.set(row, String.join(" ", tokens));
+        }
+        Files.write(file, lines);
+        return file;
+    }
+
+    /**
+     * Writes a class schedule with every class, instructor, time and studio to a temporary file
+     * in the classSchedule.txt format, deleted when the JVM exits.
+     *
+     * @return The file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static Path writeSchedule() throws IOException {
+        Path file = Files.createTempFile("schedule-", ".txt");
+        file.toFile().deleteOnExit();
+        new RosterGenerator(0).writeSchedule(file);
+        return file;
+    }
+}
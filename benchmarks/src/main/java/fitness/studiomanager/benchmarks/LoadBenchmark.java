@@ -0,0 +1,92 @@
+package fitness.studiomanager.benchmarks;
+
+import fitness.studiomanager.MemberList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a generated member file of 100k and 1M members with each of the MemberList loaders,
+ * with the generator's common names or with a distinct last name on nearly every row.
+ *
+ * @author Woogyeom Sim
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"common", "distinct"})
+    private String names;
+
+    private File file;
+
+    /**
+     * Writes the member file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        Path members = names.equals("distinct") ? Fixtures.writeMembersWithDistinctNames(size, 1) : Fixtures.writeMembers(size, 1);
+        file = members.toFile();
+    }
+
+    /**
+     * Loads the file through a FileChannel.
+     *
+     * @return The loaded list.
+     * @throws IOException If the file cannot be read.
+     */
+    @Benchmark
+    public MemberList load() throws IOException {
+        MemberList memberList = new MemberList();
+        memberList.load(file);
+        return memberList;
+    }
+
+    /**
+     * Loads the file by memory-mapping it.
+     *
+     * @return The loaded list.
+     * @throws IOException If the file cannot be read.
+     */
+    @Benchmark
+    public MemberList loadMapped() throws IOException {
+        MemberList memberList = new MemberList();
+        memberList.loadMapped(file);
+        return memberList;
+    }
+
+    /**
+     * Loads the file in chunks parsed on every core.
+     *
+     * @return The loaded list.
+     * @throws IOException If the file cannot be read.
+     */
+    @Benchmark
+    public MemberList loadParallel() throws IOException {
+        MemberList memberList = new MemberList();
+        memberList.loadParallel(file, Runtime.getRuntime().availableProcessors());
+        return memberList;
+    }
+}
@@ -0,0 +1,255 @@
+package fitness.studiomanager.benchmarks;
+
+import fitness.studiomanager.Location;
+import fitness.studiomanager.MemberList;
+import fitness.studiomanager.Schedule;
+import fitness.studiomanager.StudioServer;
+import fitness.studiomanager.StudioService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives a StudioServer with a mix of kiosk traffic from many concurrent clients and reports the throughput
+ * and latency: half member lookups, and the rest attendance and guest check-ins and removals.
+ * Without a URL it starts a server in the same process on a free port, with every class and instructor
+ * scheduled at each studio, so it runs on its own. Either way it first signs up its members over the API.
+ *
+ * @author Woogyeom Sim
+ */
+public class LoadGenerator {
+    private static final Pattern CLASS = Pattern.compile("\"class\":\"(\\w+)\",\"instructor\":\"(\\w+)\",\"studio\":\"(\\w+)\"");
+    private static final Location[] LOCATIONS = Location.values();
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String[] members; // fname, lname and dob query parameters by member
+    private final List<String> classes = new ArrayList<>(); // class, instructor and studio query parameters
+    private final LongAdder[] statuses = new LongAdder[6]; // responses by hundreds of the status code
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Constructs a load generator for a server.
+     *
+     * @param baseUrl The URL of the server, without a trailing slash.
+     * @param numMembers The number of members to sign up and use.
+     */
+    public LoadGenerator(String baseUrl, int numMembers) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        members = new String[numMembers];
+        for (int i = 0; i < numMembers; i++) {
+            members[i] = "fname=Load" + i + "&lname=Generator&dob=" + encode("1/" + (1 + i % 28) + "/1990");
+        }
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Signs up the members, a third each of Basic, Family and Premium at the studios in turn,
+     * and reads the classes of the schedule.
+     *
+     * @throws IOException If the server cannot be reached or has no classes.
+     * @throws InterruptedException If interrupted while waiting for a response.
+     */
+    public void prepare() throws IOException, InterruptedException {
+        for (int i = 0; i < members.length; i++) {
+            String query = members[i] + "&type=" + "BFP".charAt(i % 3) + "&studio=" + LOCATIONS[i % LOCATIONS.length].name();
+            send("POST", "/members?" + query);
+        } // 409 for a member signed up by an earlier run
+        HttpResponse<String> response = client.send(request("GET", "/classes"), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = CLASS.matcher(response.body());
+        while (matcher.find()) {
+            classes.add("class=" + matcher.group(1) + "&instructor=" + matcher.group(2) + "&studio=" + matcher.group(3));
+        }
+        if (classes.isEmpty()) {
+            throw new IOException("The server has no classes; load a class schedule first.");
+        }
+    }
+
+    /**
+     * Sends requests from concurrent clients, each on its own virtual thread, until a number of requests is reached.
+     *
+     * @param concurrency The number of clients.
+     * @param requests The total number of requests.
+     * @return The latency of every request in nanoseconds, in no particular order.
+     * @throws InterruptedException If interrupted while waiting for the clients.
+     */
+    public long[] run(int concurrency, int requests) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                clients.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        long start = System.nanoTime();
+                        sendRandom(ThreadLocalRandom.current());
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    return null;
+                });
+            }
+        } // close waits for every client
+        return latencies;
+    }
+
+    /**
+     * Sends one request of the mix for a random member and class.
+     *
+     * @param random The random number generator of the calling thread.
+     */
+    private void sendRandom(ThreadLocalRandom random) {
+        String member = members[random.nextInt(members.length)];
+        String fitnessClass = classes.get(random.nextInt(classes.size()));
+        int kind = random.nextInt(20);
+        try {
+            if (kind < 10) {
+                send("GET", "/members?" + member);
+            } else if (kind < 14) {
+                send("POST", "/attendance?" + fitnessClass + "&" + member);
+            } else if (kind < 18) {
+                send("DELETE", "/attendance?" + fitnessClass + "&" + member);
+            } else if (kind < 19) {
+                send("POST", "/guests?" + fitnessClass + "&" + member);
+            } else {
+                send("DELETE", "/guests?" + fitnessClass + "&" + member);
+            }
+        } catch (IOException e) {
+            failures.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.increment();
+        }
+    }
+
+    /**
+     * Sends a request, discards the body and counts the status.
+     *
+     * @param method The request method.
+     * @param pathAndQuery The path and encoded query.
+     * @throws IOException If the request fails.
+     * @throws InterruptedException If interrupted while waiting for the response.
+     */
+    private void send(String method, String pathAndQuery) throws IOException, InterruptedException {
+        int status = client.send(request(method, pathAndQuery), HttpResponse.BodyHandlers.discarding()).statusCode();
+        statuses[Math.min(status / 100, statuses.length - 1)].increment();
+    }
+
+    /**
+     * Builds a request without a body.
+     *
+     * @param method The request method.
+     * @param pathAndQuery The path and encoded query.
+     * @return The request.
+     */
+    private HttpRequest request(String method, String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    /**
+     * Encodes a query parameter value.
+     *
+     * @param value The value.
+     * @return The encoded value.
+     */
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Prints the throughput, the latency percentiles and the responses by status.
+     *
+     * @param latencies The latency of every request in nanoseconds.
+     * @param elapsed The time the run took in nanoseconds.
+     */
+    private void report(long[] latencies, long elapsed) {
+        Arrays.sort(latencies);
+        System.out.printf("%d requests in %.1f ms: %.0f requests/s%n", latencies.length, elapsed / 1e6, latencies.length / (elapsed / 1e9));
+        System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                latencies[latencies.length / 2] / 1e6, latencies[(int) (latencies.length * 0.99)] / 1e6, latencies[latencies.length - 1] / 1e6);
+        for (int i = 1; i < statuses.length; i++) {
+            if (statuses[i].sum() > 0) {
+                System.out.printf("  %dxx %d%n", i, statuses[i].sum());
+            }
+        }
+        if (failures.sum() > 0) {
+            System.out.println("  failed " + failures.sum());
+        }
+    }
+
+    /**
+     * Starts a server on a free local port over a schedule of every class and instructor at each studio.
+     *
+     * @return The server.
+     * @throws IOException If the schedule cannot be written or the server cannot be started.
+     */
+    private static StudioServer startLocalServer() throws IOException {
+        StudioService service = new StudioService(new MemberList(), new Schedule());
+        service.loadSchedule(Fixtures.writeSchedule().toFile());
+        StudioServer server = new StudioServer(service, new InetSocketAddress("localhost", 0));
+        server.start();
+        return server;
+    }
+
+    /**
+     * Runs a warm-up and then a measured load against a server, started locally if no URL is given.
+     *
+     * @param args Optionally the server URL or "-" for a local server, the number of concurrent clients,
+     *             the number of requests, and the number of members.
+     * @throws IOException If the server cannot be started or reached.
+     * @throws InterruptedException If interrupted while waiting for the clients.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String url = args.length > 0 ? args[0] : "-";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int numMembers = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        StudioServer server = null;
+        if (url.equals("-")) {
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            } // as StudioServer.main does, or every keep-alive response waits for a delayed ACK
+            server = startLocalServer();
+            url = "http://localhost:" + server.getPort();
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(url, numMembers);
+            generator.prepare();
+            generator.run(concurrency, Math.max(requests / 10, 1)); // warm-up, not reported
+            for (LongAdder status : generator.statuses) {
+                status.reset();
+            }
+            generator.failures.reset();
+            long start = System.nanoTime();
+            long[] latencies = generator.run(concurrency, requests);
+            generator.report(latencies, System.nanoTime() - start);
+        } finally {
+            if (server != null) {
+                server.stop(0);
+            }
+        }
+    }
+}
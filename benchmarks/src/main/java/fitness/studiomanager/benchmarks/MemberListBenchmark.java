@@ -0,0 +1,109 @@
+package fitness.studiomanager.benchmarks;
+
+import fitness.studiomanager.Member;
+import fitness.studiomanager.MemberList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding, finding and removing members in a MemberList of 1k, 100k and 1M members.
+ *
+ * @author Woogyeom Sim
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberListBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Member[] members;
+    private Member[] probes; // equal to the members but distinct objects, as a lookup from a form would be
+    private MemberList memberList;
+    private int next;
+
+    /**
+     * Generates the members and the lookup probes.
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        members = Fixtures.members(size, 1);
+        probes = Fixtures.members(size, 1);
+    }
+
+    /**
+     * Fills a member list, so every iteration of remove starts from the full list.
+     */
+    @Setup(Level.Iteration)
+    public void fill() {
+        memberList = new MemberList();
+        for (Member member : members) {
+            memberList.add(member);
+        }
+        next = 0;
+    }
+
+    /**
+     * Returns the next member in turn.
+     *
+     * @param from The members.
+     * @return The member.
+     */
+    private Member nextOf(Member[] from) {
+        Member member = from[next];
+        next = next + 1 == from.length ? 0 : next + 1;
+        return member;
+    }
+
+    /**
+     * Adds every member to an empty list.
+     *
+     * @return The filled list.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MemberList addAll() {
+        MemberList list = new MemberList();
+        for (Member member : members) {
+            list.add(member);
+        }
+        return list;
+    }
+
+    /**
+     * Finds a member by an equal member.
+     *
+     * @return The index of the member.
+     */
+    @Benchmark
+    public int find() {
+        return memberList.find(nextOf(probes));
+    }
+
+    /**
+     * Removes a member and adds it back at the end of the list.
+     *
+     * @return True if the member was added back.
+     */
+    @Benchmark
+    public boolean removeAndAdd() {
+        Member member = nextOf(members);
+        memberList.remove(member);
+        return memberList.add(member);
+    }
+}
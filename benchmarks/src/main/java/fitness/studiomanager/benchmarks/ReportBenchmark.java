@@ -0,0 +1,77 @@
+package fitness.studiomanager.benchmarks;
+
+import fitness.studiomanager.Member;
+import fitness.studiomanager.MemberList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the member reports printed by the controller on lists of 1k and 100k members.
+ *
+ * @author Woogyeom Sim
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    private MemberList memberList;
+
+    /**
+     * Fills the member list.
+     */
+    @Setup(Level.Trial)
+    public void fill() {
+        memberList = new MemberList();
+        for (Member member : Fixtures.members(size, 1)) {
+            memberList.add(member);
+        }
+    }
+
+    /**
+     * Prints the members sorted by profile.
+     *
+     * @return The report.
+     */
+    @Benchmark
+    public String printByMember() {
+        return memberList.printByMember();
+    }
+
+    /**
+     * Prints the members sorted by county.
+     *
+     * @return The report.
+     */
+    @Benchmark
+    public String printByCounty() {
+        return memberList.printByCounty();
+    }
+
+    /**
+     * Prints the members with their next due amounts.
+     *
+     * @return The report.
+     */
+    @Benchmark
+    public String printFees() {
+        return memberList.printFees();
+    }
+}
@@ -0,0 +1,84 @@
+package fitness.studiomanager.benchmarks;
+
+import fitness.studiomanager.Date;
+import fitness.studiomanager.FitnessClass;
+import fitness.studiomanager.Instructor;
+import fitness.studiomanager.Location;
+import fitness.studiomanager.Member;
+import fitness.studiomanager.Offer;
+import fitness.studiomanager.Schedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding a class in the schedule and checking whether a date has expired.
+ *
+ * @author Woogyeom Sim
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleBenchmark {
+    private static final Offer[] OFFERS = Offer.values();
+    private static final Instructor[] INSTRUCTORS = Instructor.values();
+    private static final Location[] LOCATIONS = Location.values();
+
+    private Schedule schedule;
+    private Date[] dates;
+    private int next;
+
+    /**
+     * Loads a schedule of every class and instructor at every studio, and generates expiry dates.
+     *
+     * @throws IOException If the schedule cannot be written or loaded.
+     */
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        schedule = new Schedule();
+        schedule.load(Fixtures.writeSchedule().toFile());
+        Member[] members = Fixtures.members(1024, 1);
+        dates = new Date[members.length];
+        for (int i = 0; i < members.length; i++) {
+            dates[i] = members[i].getExpire();
+        }
+    }
+
+    /**
+     * Finds a class by name, instructor and studio, cycling through every combination.
+     *
+     * @return The class.
+     */
+    @Benchmark
+    public FitnessClass find() {
+        int i = next;
+        next = next + 1 == OFFERS.length * INSTRUCTORS.length * LOCATIONS.length ? 0 : next + 1;
+        return schedule.find(OFFERS[i % OFFERS.length], INSTRUCTORS[i / OFFERS.length % INSTRUCTORS.length],
+                LOCATIONS[i / (OFFERS.length * INSTRUCTORS.length) % LOCATIONS.length]);
+    }
+
+    /**
+     * Checks whether an expiry date is before today.
+     *
+     * @return True if the date has expired.
+     */
+    @Benchmark
+    public boolean isExpired() {
+        next = next + 1 & dates.length - 1; // dates.length is a power of two
+        return dates[next].isExpired();
+    }
+}
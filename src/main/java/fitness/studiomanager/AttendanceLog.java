@@ -0,0 +1,413 @@
+package fitness.studiomanager;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Represents an append-only write-ahead log of the changes made to a member list and a schedule:
+ * members added, attendance and guests recorded or removed, and changes to guest passes or classes attended.
+ * Appending only queues a record; a background writer thread writes whatever has queued up and then
+ * forces it to disk once for the whole batch (group commit), so callers never wait for the disk.
+ * On startup, recover restores the latest snapshot and replays the records logged after it.
+ * A checkpoint saves a new snapshot and empties the log.
+ *
+ * Each record is framed as its length, a sequence number, a type, the payload and a CRC32, so a record
+ * torn by a crash is detected and dropped together with everything after it. Members are referred to by
+ * the ID their member list assigned.
+ *
+ * @author Woogyeom Sim
+ */
+public class AttendanceLog implements AutoCloseable {
+    private static final byte MEMBER_ADDED = 1;
+    private static final byte ATTENDANCE_RECORDED = 2;
+    private static final byte ATTENDANCE_REMOVED = 3;
+    private static final byte GUEST_RECORDED = 4;
+    private static final byte GUEST_REMOVED = 5;
+    private static final byte MEMBER_STATE = 6;
+    private static final int HEADER_SIZE = 4 + 8 + 1; // length, sequence, type
+    private static final int CHECKSUM_SIZE = 4;
+    private static final Offer[] OFFERS = Offer.values();
+    private static final Instructor[] INSTRUCTORS = Instructor.values();
+    private static final Location[] LOCATIONS = Location.values();
+    private static final byte[] CLOSE = new byte[0]; // queued by close to stop the writer thread
+
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final int checkpointInterval;
+    private final LinkedBlockingQueue<byte[]> pending = new LinkedBlockingQueue<>();
+    private FileChannel channel;
+    private Thread writer;
+    private long sequence;
+    private long appended;
+    private long durable;
+    private long sinceCheckpoint;
+    private IOException failure;
+
+    /**
+     * Constructs a log that is not yet open. Call recover before appending.
+     *
+     * @param logPath The log file.
+     * @param snapshotPath The snapshot file that checkpoints are saved to.
+     * @param checkpointInterval The number of records after which needsCheckpoint returns true.
+     */
+    public AttendanceLog(Path logPath, Path snapshotPath, int checkpointInterval) {
+        this.logPath = logPath;
+        this.snapshotPath = snapshotPath;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Rebuilds the state from the snapshot, if any, and the records logged after it, then opens the log
+     * for appending. A torn record at the end of the log is cut off.
+     *
+     * @return The recovered member list and schedule.
+     * @throws IOException If the snapshot or log cannot be read.
+     */
+    public synchronized Snapshot recover() throws IOException {
+        Snapshot snapshot = Files.exists(snapshotPath)
+                ? Snapshot.restore(snapshotPath)
+                : new Snapshot(new MemberList(), new Schedule());
+        sequence = snapshot.getSequence();
+
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long valid = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        CRC32 crc = new CRC32();
+        while (true) {
+            byte[] record;
+            try {
+                int length = in.readInt();
+                if (length < HEADER_SIZE - 4 || length > channel.size()) {
+                    break;
+                } // garbage length from a torn write
+                record = new byte[length];
+                in.readFully(record);
+                int checksum = in.readInt();
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+            valid += 4 + record.length + CHECKSUM_SIZE;
+            long recordSequence = ByteBuffer.wrap(record).getLong();
+            if (recordSequence > sequence) {
+                apply(record, snapshot.getMemberList(), snapshot.getSchedule());
+                sequence = recordSequence;
+                sinceCheckpoint++;
+            } // records up to the snapshot's sequence are already in it
+        }
+        channel.truncate(valid);
+        channel.position(valid);
+
+        writer = new Thread(this::writeLoop, "attendance-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return snapshot;
+    }
+
+    /**
+     * Applies a logged record to the state being recovered.
+     *
+     * @param record The record without its length and checksum.
+     * @param memberList The member list.
+     * @param schedule The schedule.
+     * @throws IOException If the record is malformed.
+     */
+    private void apply(byte[] record, MemberList memberList, Schedule schedule) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, 8, record.length - 8));
+        byte type = in.readByte();
+        if (type == MEMBER_ADDED) {
+            int id = in.readInt();
+            byte memberType = in.readByte();
+            Profile profile = readProfile(in);
+            Date expire = Date.unpack(in.readInt());
+            Location homeStudio = LOCATIONS[in.readByte()];
+            Member member = Snapshot.newMember(memberType, profile, expire, homeStudio, in.readInt());
+            if (memberList.byId(id) == null) {
+                memberList.add(member, id);
+            }
+            return;
+        }
+
+        Member member = memberList.byId(in.readInt());
+        if (member == null) {
+            return;
+        } // the member was added by a load that was not checkpointed
+        if (type == MEMBER_STATE) {
+            Snapshot.setState(member, in.readInt());
+            return;
+        }
+
+        FitnessClass fitnessClass = schedule.find(OFFERS[in.readByte()], INSTRUCTORS[in.readByte()], LOCATIONS[in.readByte()]);
+        if (fitnessClass == null) {
+            return;
+        }
+        switch (type) {
+            case ATTENDANCE_RECORDED -> fitnessClass.addMember(member);
+            case ATTENDANCE_REMOVED -> fitnessClass.removeMember(member);
+            case GUEST_RECORDED -> fitnessClass.addGuest(member);
+            case GUEST_REMOVED -> fitnessClass.removeGuest(member);
+            default -> throw new IOException("Unknown log record type " + type);
+        }
+    }
+
+    /**
+     * Logs a new member.
+     *
+     * @param member The member added to the member list.
+     */
+    public void memberAdded(Member member) {
+        append(MEMBER_ADDED, out -> {
+            out.writeInt(member.getId());
+            out.writeByte(Snapshot.typeOf(member));
+            writeProfile(out, member.getProfile());
+            out.writeInt(member.getExpire().pack());
+            out.writeByte(member.getHomeStudio().ordinal());
+            out.writeInt(Snapshot.stateOf(member));
+        });
+    }
+
+    /**
+     * Logs a member recorded as attending a class.
+     *
+     * @param fitnessClass The class.
+     * @param member The member.
+     */
+    public void attendanceRecorded(FitnessClass fitnessClass, Member member) {
+        appendClassEvent(ATTENDANCE_RECORDED, fitnessClass, member);
+    }
+
+    /**
+     * Logs a member removed from a class.
+     *
+     * @param fitnessClass The class.
+     * @param member The member.
+     */
+    public void attendanceRemoved(FitnessClass fitnessClass, Member member) {
+        appendClassEvent(ATTENDANCE_REMOVED, fitnessClass, member);
+    }
+
+    /**
+     * Logs a guest of a member recorded as attending a class.
+     *
+     * @param fitnessClass The class.
+     * @param member The member bringing the guest.
+     */
+    public void guestRecorded(FitnessClass fitnessClass, Member member) {
+        appendClassEvent(GUEST_RECORDED, fitnessClass, member);
+    }
+
+    /**
+     * Logs a guest of a member removed from a class.
+     *
+     * @param fitnessClass The class.
+     * @param member The member who brought the guest.
+     */
+    public void guestRemoved(FitnessClass fitnessClass, Member member) {
+        appendClassEvent(GUEST_REMOVED, fitnessClass, member);
+    }
+
+    /**
+     * Logs the current guest passes of a Family or Premium member, or classes attended of a Basic member.
+     *
+     * @param member The member whose state changed.
+     */
+    public void memberStateChanged(Member member) {
+        append(MEMBER_STATE, out -> {
+            out.writeInt(member.getId());
+            out.writeInt(Snapshot.stateOf(member));
+        });
+    }
+
+    private void appendClassEvent(byte type, FitnessClass fitnessClass, Member member) {
+        append(type, out -> {
+            out.writeInt(member.getId());
+            out.writeByte(fitnessClass.getClassInfo().ordinal());
+            out.writeByte(fitnessClass.getInstructor().ordinal());
+            out.writeByte(fitnessClass.getStudio().ordinal());
+        });
+    }
+
+    private static void writeProfile(DataOutputStream out, Profile profile) throws IOException {
+        out.writeUTF(profile.getFname());
+        out.writeUTF(profile.getLname());
+        out.writeInt(profile.getDob().pack());
+    }
+
+    private static Profile readProfile(DataInputStream in) throws IOException {
+        return new Profile(in.readUTF(), in.readUTF(), Date.unpack(in.readInt()));
+    }
+
+    /**
+     * Writes the payload of a record.
+     */
+    private interface Payload {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Frames a record and queues it for the writer thread. Returns without waiting for the disk.
+     *
+     * @param type The record type.
+     * @param payload The payload writer.
+     * @throws IllegalStateException If the log is not open.
+     * @throws UncheckedIOException If the writer thread has failed.
+     */
+    private synchronized void append(byte type, Payload payload) {
+        if (writer == null) {
+            throw new IllegalStateException("Attendance log is not open");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0); // length, patched below
+            out.writeLong(++sequence);
+            out.writeByte(type);
+            payload.write(out);
+            out.writeInt(0); // checksum, patched below
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a ByteArrayOutputStream never throws
+        }
+        byte[] record = bytes.toByteArray();
+        ByteBuffer frame = ByteBuffer.wrap(record);
+        int length = record.length - 4 - CHECKSUM_SIZE;
+        frame.putInt(0, length);
+        CRC32 crc = new CRC32();
+        crc.update(record, 4, length);
+        frame.putInt(record.length - CHECKSUM_SIZE, (int) crc.getValue());
+
+        pending.add(record);
+        appended++;
+        sinceCheckpoint++;
+    }
+
+    /**
+     * Drains queued records in batches, writing each batch and forcing it to disk once.
+     */
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>();
+        try {
+            boolean closing = false;
+            while (!closing) {
+                batch.add(pending.take());
+                pending.drainTo(batch);
+                closing = batch.remove(CLOSE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+                for (int i = 0; i < buffers.length; i++) {
+                    buffers[i] = ByteBuffer.wrap(batch.get(i));
+                }
+                while (buffers[buffers.length - 1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(false);
+                synchronized (this) {
+                    durable += batch.size();
+                    notifyAll();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until every record appended so far has been forced to disk.
+     *
+     * @throws IOException If the writer thread failed or the wait was interrupted.
+     */
+    public synchronized void sync() throws IOException {
+        long target = appended;
+        while (durable < target && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while syncing the attendance log");
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Checks whether enough records have been logged since the last checkpoint to take another.
+     *
+     * @return True if a checkpoint is due.
+     */
+    public synchronized boolean needsCheckpoint() {
+        return sinceCheckpoint >= checkpointInterval;
+    }
+
+    /**
+     * Saves a snapshot of the current state and empties the log. The state must not change while
+     * the checkpoint runs. If the process dies between saving the snapshot and emptying the log,
+     * recovery skips the records the snapshot already includes by their sequence numbers.
+     *
+     * @param memberList The member list.
+     * @param schedule The schedule.
+     * @throws IOException If the snapshot cannot be saved or the log cannot be truncated.
+     */
+    public synchronized void checkpoint(MemberList memberList, Schedule schedule) throws IOException {
+        sync();
+        new Snapshot(memberList, schedule, sequence).save(snapshotPath);
+        channel.truncate(0);
+        channel.force(false);
+        sinceCheckpoint = 0;
+    }
+
+    /**
+     * Forces every queued record to disk and stops the writer thread.
+     *
+     * @throws IOException If the last records cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        try {
+            sync();
+        } finally {
+            pending.add(CLOSE);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+}
@@ -62,12 +62,18 @@ public class Basic extends Member {
     }
 
     /**
-     * Sets the number of classes.
+     * Sets the number of classes, and updates the fee totals of the member list if the bill changes,
+     * i.e. when the count goes past the max number of classes.
      *
      * @param n The new number of classes.
      */
     public void setNumClasses(int n) {
+        double before = bill();
         numClasses = n;
+        BillingEngine billing = getBilling();
+        if (billing != null) {
+            billing.billChanged(this, before, bill());
+        }
     }
 
     /**
@@ -0,0 +1,263 @@
+package fitness.studiomanager;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps running totals of the next due amounts of the members of a member list, by studio, by county,
+ * by membership plan and overall, so revenue dashboards read them in constant time instead of billing
+ * every member. The engine tracks one member list at a time: that list updates the totals as members
+ * are added and removed, and a Basic member reports the change to its bill when a class takes it past
+ * the classes included in its plan. Copies of the list do not count towards the totals until tracked.
+ * Amounts are kept in cents, so adding and subtracting the same bill always cancels out exactly.
+ * Totals are updated with adders, so check-ins on different member stripes never contend for them.
+ *
+ * @author Woogyeom Sim
+ */
+public class BillingEngine {
+    private static final Location[] LOCATIONS = Location.values();
+    private static final String[] COUNTIES = counties();
+    private static final int[] COUNTY_OF = countyIndexes(); // county index by location ordinal
+    private static final String PLANS = "BFP";
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder[] byStudio = adders(LOCATIONS.length);
+    private final LongAdder[] byCounty = adders(COUNTIES.length);
+    private final LongAdder[] byPlan = adders(PLANS.length());
+    private MemberList memberList; // the list counted, or null
+
+    /**
+     * Constructs a billing engine with every total at zero, tracking no member list.
+     */
+    public BillingEngine() {
+    }
+
+    /**
+     * Starts tracking a member list, e.g. a copy loaded in the background once it is published, and
+     * recomputes the totals from its members. The list tracked before stops updating the totals, and
+     * its members that are not in the new list stop reporting bill changes.
+     * No operation may be in progress on either list.
+     *
+     * @param list The member list to track.
+     */
+    void track(MemberList list) {
+        if (memberList != null) {
+            memberList.setBilling(null);
+            for (int i = 0; i < memberList.getSize(); i++) {
+                memberList.getMember(i).setBilling(null);
+            }
+        }
+        total.reset();
+        reset(byStudio);
+        reset(byCounty);
+        reset(byPlan);
+        memberList = list;
+        list.setBilling(this);
+        for (int i = 0; i < list.getSize(); i++) {
+            Member member = list.getMember(i);
+            added(member);
+            member.setBilling(this);
+        }
+    }
+
+    /**
+     * Adds the bill of a member that joined the member list to the totals.
+     *
+     * @param member The member added.
+     */
+    void added(Member member) {
+        update(member, cents(member.bill()));
+    }
+
+    /**
+     * Subtracts the bill of a member that left the member list from the totals.
+     *
+     * @param member The member removed.
+     */
+    void removed(Member member) {
+        update(member, -cents(member.bill()));
+    }
+
+    /**
+     * Applies a change to the bill of a member of the list.
+     *
+     * @param member The member whose bill changed.
+     * @param before The bill before the change.
+     * @param after The bill after the change.
+     */
+    void billChanged(Member member, double before, double after) {
+        long delta = cents(after) - cents(before);
+        if (delta != 0) {
+            update(member, delta);
+        }
+    }
+
+    /**
+     * Adds an amount to the totals a member counts towards.
+     *
+     * @param member The member.
+     * @param cents The amount in cents, negative to subtract.
+     */
+    private void update(Member member, long cents) {
+        Location studio = member.getHomeStudio();
+        total.add(cents);
+        byStudio[studio.ordinal()].add(cents);
+        byCounty[COUNTY_OF[studio.ordinal()]].add(cents);
+        int plan = planOf(member);
+        if (plan >= 0) {
+            byPlan[plan].add(cents);
+        }
+    }
+
+    /**
+     * Returns the total next due amount of all members in cents.
+     *
+     * @return The total.
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the total next due amount of the members of a home studio in cents.
+     *
+     * @param studio The studio.
+     * @return The total.
+     */
+    public long getStudioTotal(Location studio) {
+        return byStudio[studio.ordinal()].sum();
+    }
+
+    /**
+     * Returns the total next due amount of the members whose home studio is in a county in cents.
+     *
+     * @param county The county, ignoring case.
+     * @return The total, or 0 if no studio is in the county.
+     */
+    public long getCountyTotal(String county) {
+        for (int i = 0; i < COUNTIES.length; i++) {
+            if (COUNTIES[i].equalsIgnoreCase(county)) {
+                return byCounty[i].sum();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the total next due amount of the members of a membership plan in cents.
+     *
+     * @param type The membership type, B, F or P.
+     * @return The total, or 0 for an unknown type.
+     */
+    public long getPlanTotal(char type) {
+        int plan = PLANS.indexOf(Character.toUpperCase(type));
+        return plan < 0 ? 0 : byPlan[plan].sum();
+    }
+
+    /**
+     * Writes the totals by studio, county and plan, and overall.
+     *
+     * @param out The destination.
+     * @throws IOException If writing fails.
+     */
+    public void writeTotals(Appendable out) throws IOException {
+        out.append("-Next due by studio-\n");
+        for (Location studio : LOCATIONS) {
+            out.append(studio.getCity()).append(": ").append(format(getStudioTotal(studio))).append('\n');
+        }
+        out.append("-Next due by county-\n");
+        for (String county : COUNTIES) {
+            out.append(county.toUpperCase()).append(": ").append(format(getCountyTotal(county))).append('\n');
+        }
+        out.append("-Next due by plan-\n");
+        out.append("Basic: ").append(format(getPlanTotal('B'))).append('\n');
+        out.append("Family: ").append(format(getPlanTotal('F'))).append('\n');
+        out.append("Premium: ").append(format(getPlanTotal('P'))).append('\n');
+        out.append("Total: ").append(format(getTotal())).append('\n');
+    }
+
+    /**
+     * Returns an amount in cents as dollars, e.g. $1234.50.
+     *
+     * @param cents The amount in cents.
+     * @return The formatted amount.
+     */
+    public static String format(long cents) {
+        String sign = cents < 0 ? "-" : "";
+        long abs = Math.abs(cents);
+        return sign + "$" + abs / 100 + "." + (abs % 100 < 10 ? "0" : "") + abs % 100;
+    }
+
+    /**
+     * Returns a bill in cents, rounded to the nearest cent.
+     *
+     * @param amount The bill in dollars.
+     * @return The bill in cents.
+     */
+    private static long cents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Returns the index of the plan of a member in PLANS.
+     *
+     * @param member The member.
+     * @return The index, or -1 for a plain member.
+     */
+    private static int planOf(Member member) {
+        return switch (member) {
+            case Premium premium -> 2;
+            case Family family -> 1;
+            case Basic basic -> 0;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Returns the counties of the studios, without duplicates, in the order of the studios.
+     *
+     * @return The counties.
+     */
+    private static String[] counties() {
+        return Arrays.stream(LOCATIONS).map(Location::getCounty).distinct().toArray(String[]::new);
+    }
+
+    /**
+     * Returns the index in COUNTIES of the county of every studio.
+     *
+     * @return The county indexes by location ordinal.
+     */
+    private static int[] countyIndexes() {
+        int[] indexes = new int[LOCATIONS.length];
+        for (Location studio : LOCATIONS) {
+            indexes[studio.ordinal()] = Arrays.asList(COUNTIES).indexOf(studio.getCounty());
+        }
+        return indexes;
+    }
+
+    /**
+     * Returns new adders.
+     *
+     * @param n The number of adders.
+     * @return The adders.
+     */
+    private static LongAdder[] adders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Sets adders back to zero.
+     *
+     * @param adders The adders.
+     */
+    private static void reset(LongAdder[] adders) {
+        for (LongAdder adder : adders) {
+            adder.reset();
+        }
+    }
+}
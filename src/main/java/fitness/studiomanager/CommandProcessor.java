@@ -0,0 +1,335 @@
+package fitness.studiomanager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.StringTokenizer;
+
+/**
+ * Executes studio manager commands given as lines of text, without the JavaFX interface,
+ * so that a day of front-desk traffic can be replayed from a file for regression and performance testing.
+ * Each command is a code followed by its arguments, separated by blanks:
+ *
+ * LS file / LM file - load the class schedule / the members from a text file
+ * AB, AF, AP fname lname dob studio - add a Basic, Family or Premium member
+ * R, U class instructor studio fname lname dob - record / remove attendance of a member
+ * RG, UG class instructor studio fname lname dob - record / remove a guest of a member
+ * PM, PC, PF - print members by profile, by county, or with the next due amount
+ * PR - print the running fee totals by studio, county and plan
+ * S, SA - print the class schedule, without or with attendees
+ * Q - stop processing
+ *
+ * Dates are written as month/day/year. The commands are carried out by a StudioService, so the rules
+ * and messages are those of the StudioManagerController.
+ *
+ * @author Woogyeom Sim
+ */
+public class CommandProcessor {
+    private static final Offer[] OFFERS = Offer.values();
+    private static final Instructor[] INSTRUCTORS = Instructor.values();
+    private static final Location[] LOCATIONS = Location.values();
+
+    private final StudioService service;
+    private final MemberList memberList;
+    private final Schedule schedule;
+    private final Writer out;
+
+    /**
+     * Constructs a command processor that works on a member list and a schedule without logging changes.
+     *
+     * @param memberList The member list.
+     * @param schedule The schedule.
+     * @param out The destination of the output, ideally buffered.
+     */
+    public CommandProcessor(MemberList memberList, Schedule schedule, Writer out) {
+        this(new StudioService(memberList, schedule), out);
+    }
+
+    /**
+     * Constructs a command processor that carries out commands through a studio service.
+     *
+     * @param service The studio service.
+     * @param out The destination of the output, ideally buffered.
+     */
+    public CommandProcessor(StudioService service, Writer out) {
+        this.service = service;
+        this.memberList = service.getMemberList();
+        this.schedule = service.getSchedule();
+        this.out = out;
+    }
+
+    /**
+     * Executes every command read from a reader until the end of input or a Q command.
+     *
+     * @param in The commands, one per line.
+     * @return The number of commands executed.
+     * @throws IOException If reading the commands or writing the output fails.
+     */
+    public int run(BufferedReader in) throws IOException {
+        int count = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            StringTokenizer tokens = new StringTokenizer(line);
+            if (!tokens.hasMoreTokens()) {
+                continue;
+            } // skip blank lines
+            count++;
+            if (!execute(tokens)) {
+                break;
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Executes one command.
+     *
+     * @param line The command line.
+     * @return False if the command was Q, true otherwise.
+     * @throws IOException If writing the output fails.
+     */
+    public boolean execute(String line) throws IOException {
+        StringTokenizer tokens = new StringTokenizer(line);
+        return !tokens.hasMoreTokens() || execute(tokens);
+    }
+
+    /**
+     * Executes the command whose tokens are given.
+     *
+     * @param tokens The tokens of the command line, with at least one left.
+     * @return False if the command was Q, true otherwise.
+     * @throws IOException If writing the output fails.
+     */
+    private boolean execute(StringTokenizer tokens) throws IOException {
+        String command = tokens.nextToken();
+        switch (command) {
+            case "LS" -> loadSchedule(tokens);
+            case "LM" -> loadMembers(tokens);
+            case "AB", "AF", "AP" -> addMember(command.charAt(1), tokens);
+            case "R" -> checkIn(service::recordAttendance, tokens);
+            case "U" -> checkIn(service::removeAttendance, tokens);
+            case "RG" -> checkIn(service::recordGuest, tokens);
+            case "UG" -> checkIn(service::removeGuest, tokens);
+            case "PM" -> printReport(memberList.isEmpty() ? null : memberList::writeByMember);
+            case "PC" -> printReport(memberList.isEmpty() ? null : memberList::writeByCounty);
+            case "PF" -> printReport(memberList.isEmpty() ? null : memberList::writeFees);
+            case "PR" -> printReport(memberList.isEmpty() ? null : service.getBilling()::writeTotals);
+            case "S" -> printSchedule(false);
+            case "SA" -> printSchedule(true);
+            case "Q" -> {
+                print("Studio Manager terminated.");
+                return false;
+            }
+            default -> print(command + " is an invalid command!");
+        }
+        return true;
+    }
+
+    /**
+     * Loads the class schedule from the file named by the next token.
+     *
+     * @param tokens The tokens of the command line.
+     * @throws IOException If writing the output fails.
+     */
+    private void loadSchedule(StringTokenizer tokens) throws IOException {
+        if (!tokens.hasMoreTokens()) {
+            print("invalid input");
+            return;
+        }
+        try {
+            service.loadSchedule(new File(tokens.nextToken()));
+            print("Class Schedule loaded");
+        } catch (IOException | RuntimeException e) {
+            print("Could not load the schedule file.");
+        }
+    }
+
+    /**
+     * Loads members from the file named by the next token.
+     *
+     * @param tokens The tokens of the command line.
+     * @throws IOException If writing the output fails.
+     */
+    private void loadMembers(StringTokenizer tokens) throws IOException {
+        if (!tokens.hasMoreTokens()) {
+            print("invalid input");
+            return;
+        }
+        try {
+            service.loadMembers(new File(tokens.nextToken()));
+            print("Members loaded.");
+        } catch (IOException | RuntimeException e) {
+            print("Error loading members");
+        }
+    }
+
+    /**
+     * Adds a new member with a membership of the given type.
+     *
+     * @param type The membership type, B, F or P.
+     * @param tokens The tokens of the command line.
+     * @throws IOException If writing the output fails.
+     */
+    private void addMember(char type, StringTokenizer tokens) throws IOException {
+        if (tokens.countTokens() != 4) {
+            print("invalid input");
+            return;
+        }
+        String fname = tokens.nextToken();
+        String lname = tokens.nextToken();
+        Date dob = parseDate(tokens.nextToken());
+        if (dob == null) {
+            return;
+        }
+        Location homeStudio = parse(LOCATIONS, tokens.nextToken(), " - invalid studio location.");
+        if (homeStudio == null) {
+            return;
+        }
+        print(service.addMember(type, new Profile(fname, lname, dob), homeStudio).message());
+    }
+
+    /**
+     * Carries out an attendance operation for the class and member named by the remaining tokens.
+     *
+     * @param operation The operation of the studio service, e.g. StudioService.recordAttendance.
+     * @param tokens The tokens of the command line.
+     * @throws IOException If writing the output fails.
+     */
+    private void checkIn(StudioService.CheckIn operation, StringTokenizer tokens) throws IOException {
+        if (tokens.countTokens() != 6) {
+            print("invalid input");
+            return;
+        }
+        Offer offer = parse(OFFERS, tokens.nextToken(), " - class name does not exist.");
+        if (offer == null) return;
+        Instructor instructor = parse(INSTRUCTORS, tokens.nextToken(), " - instructor does not exist.");
+        if (instructor == null) return;
+        Location studio = parse(LOCATIONS, tokens.nextToken(), " - invalid studio location.");
+        if (studio == null) return;
+        String fname = tokens.nextToken();
+        String lname = tokens.nextToken();
+        Date dob = parseDate(tokens.nextToken());
+        if (dob == null) return;
+        print(operation.apply(offer, instructor, studio, new Profile(fname, lname, dob)).message());
+    }
+
+    /**
+     * Writes a member report, or a notice if the member list is empty.
+     *
+     * @param report The report to write, or null if the member list is empty.
+     * @throws IOException If writing the output fails.
+     */
+    private void printReport(MemberList.Report report) throws IOException {
+        if (report == null) {
+            print("Members List is empty!");
+            return;
+        }
+        report.writeTo(out);
+    }
+
+    /**
+     * Writes the classes of the schedule, optionally followed by their attendees and guests.
+     *
+     * @param attendees True to write the attendees of each class.
+     * @throws IOException If writing the output fails.
+     */
+    private void printSchedule(boolean attendees) throws IOException {
+        for (int i = 0; i < schedule.getNumClasses(); i++) {
+            FitnessClass fitnessClass = schedule.getClasses()[i];
+            print(fitnessClass.toString());
+            if (attendees && !fitnessClass.getMembers().isEmpty()) {
+                print("[Attendees]");
+                memberList.writeByMember(fitnessClass.getMembers(), out);
+            }
+            if (attendees && !fitnessClass.getGuests().isEmpty()) {
+                print("[Guests]");
+                memberList.writeByMember(fitnessClass.getGuests(), out);
+            }
+        }
+    }
+
+    /**
+     * Parses a date written as month/day/year.
+     *
+     * @param string The date.
+     * @return The date, or null and print if it is not three numbers.
+     * @throws IOException If writing the output fails.
+     */
+    private Date parseDate(String string) throws IOException {
+        StringTokenizer fields = new StringTokenizer(string, "/");
+        if (fields.countTokens() == 3) {
+            try {
+                int month = Integer.parseInt(fields.nextToken());
+                int day = Integer.parseInt(fields.nextToken());
+                int year = Integer.parseInt(fields.nextToken());
+                return new Date(month, day, year);
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        print("DOB " + string + ": invalid calendar date!");
+        return null;
+    }
+
+    /**
+     * Finds the enum constant named by a token, ignoring case.
+     *
+     * @param values The constants of the enum.
+     * @param token The token.
+     * @param error The message printed after the token if no constant matches.
+     * @return The constant, or null and print if none matches.
+     * @throws IOException If writing the output fails.
+     */
+    private <E extends Enum<E>> E parse(E[] values, String token, String error) throws IOException {
+        for (E value : values) {
+            if (value.name().equalsIgnoreCase(token)) {
+                return value;
+            }
+        }
+        print(token + error);
+        return null;
+    }
+
+    /**
+     * Writes a line of output.
+     *
+     * @param str The line without its line terminator.
+     * @throws IOException If writing the output fails.
+     */
+    private void print(String str) throws IOException {
+        out.write(str);
+        out.write('\n');
+    }
+
+    /**
+     * Runs the commands of a file and writes the output to standard output, or to a second file if given.
+     *
+     * @param args The command file, then optionally the output file.
+     * @throws IOException If reading the commands or writing the output fails.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: CommandProcessor <command file> [output file]");
+            return;
+        }
+        Writer writer = args.length > 1
+                ? Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try (BufferedReader in = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            CommandProcessor processor = new CommandProcessor(new MemberList(), new Schedule(), writer);
+            long start = System.nanoTime();
+            int count = processor.run(in);
+            long elapsed = System.nanoTime() - start;
+            System.err.printf("%d commands in %.1f ms%n", count, elapsed / 1e6);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -1,28 +1,93 @@
 package fitness.studiomanager;
 
-import java.util.Calendar;
+import java.time.LocalDate;
+import java.time.ZoneId;
 
 /**
  * Manages calendar dates with functions for setting, comparing, and validating.
  * Supports leap year handling.
+ * A date is stored as a single packed int, with the year in the high bits, then the month, then the day,
+ * so comparing two dates is one int comparison. Expiry and age checks compare against a cached packed
+ * value of today's date, which is refreshed once the day changes, instead of allocating Calendars.
  * @author Woogyeom Sim, Aravind Chundu
  */
 public class Date implements Comparable<Date> {
-    private int year;
-    private int month;
-    private int day;
+    private static final int MAX_YEAR = 0x7FFF;
+    private static final int MAX_FIELD = 0xFF;
+    private static final int INVALID_FIELD = 0; // no valid date has a year, month or day of 0
+    private static volatile int today;
+    private static volatile long tomorrowMillis;
+
+    private int packed;
 
     /**
      * Constructs a Date object with specified year, month, and day.
+     * A field too large or negative to be packed is stored as 0, which isValid rejects for the year,
+     * the month and the day alike, so an invalid date is never wrapped or clamped into a valid one.
      *
      * @param month The month of the date.
      * @param day   The day of the date.
      * @param year  The year of the date.
      */
     public Date(int month, int day, int year) {
-        this.month = month;
-        this.day = day;
-        this.year = year;
+        this.packed = pack(year, month, day);
+    }
+
+    /**
+     * Constructs a Date object from a packed date.
+     *
+     * @param packed The packed date.
+     */
+    private Date(int packed) {
+        this.packed = packed;
+    }
+
+    /**
+     * Packs a year, month and day into an int that orders the same way as the dates.
+     *
+     * @param year The year.
+     * @param month The month.
+     * @param day The day.
+     * @return The packed date.
+     */
+    private static int pack(int year, int month, int day) {
+        return field(year, MAX_YEAR) << 16 | field(month, MAX_FIELD) << 8 | field(day, MAX_FIELD);
+    }
+
+    /**
+     * Returns the value to pack for a field.
+     *
+     * @param value The value of the field.
+     * @param max The largest value the field can hold.
+     * @return The value, or INVALID_FIELD if it does not fit.
+     */
+    private static int field(int value, int max) {
+        return value >= 0 && value <= max ? value : INVALID_FIELD;
+    }
+
+    /**
+     * Returns today's date packed, computing it only when the previous value has gone stale.
+     *
+     * @return Today's packed date.
+     */
+    private static int today() {
+        if (System.currentTimeMillis() >= tomorrowMillis) {
+            refreshToday();
+        }
+        return today;
+    }
+
+    /**
+     * Recomputes today's packed date and the time at which it goes stale.
+     */
+    private static synchronized void refreshToday() {
+        if (System.currentTimeMillis() < tomorrowMillis) {
+            return;
+        } // another thread refreshed it first
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate now = LocalDate.now(zone);
+        today = pack(now.getYear(), now.getMonthValue(), now.getDayOfMonth());
+        tomorrowMillis = now.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
     }
 
     /**
@@ -31,7 +96,7 @@ public class Date implements Comparable<Date> {
      * @return The year.
      */
     public int getYear() {
-        return year;
+        return packed >>> 16;
     }
 
     /**
@@ -40,7 +105,7 @@ public class Date implements Comparable<Date> {
      * @param year The year to set.
      */
     public void setYear(int year) {
-        this.year = year;
+        packed = pack(year, getMonth(), getDay());
     }
 
     /**
@@ -49,7 +114,7 @@ public class Date implements Comparable<Date> {
      * @return The month.
      */
     public int getMonth() {
-        return month;
+        return packed >> 8 & MAX_FIELD;
     }
 
     /**
@@ -58,7 +123,7 @@ public class Date implements Comparable<Date> {
      * @param month The month to set.
      */
     public void setMonth(int month) {
-        this.month = month;
+        packed = pack(getYear(), month, getDay());
     }
 
     /**
@@ -67,7 +132,7 @@ public class Date implements Comparable<Date> {
      * @return The day.
      */
     public int getDay() {
-        return day;
+        return packed & MAX_FIELD;
     }
 
     /**
@@ -76,7 +141,27 @@ public class Date implements Comparable<Date> {
      * @param day The day to set.
      */
     public void setDay(int day) {
-        this.day = day;
+        packed = pack(getYear(), getMonth(), day);
+    }
+
+    /**
+     * Packs this date into a single int, with the year in the high bits, then the month, then the day.
+     * Packed dates order the same way as compareTo.
+     *
+     * @return The packed date.
+     */
+    public int pack() {
+        return packed;
+    }
+
+    /**
+     * Creates a date from the int produced by pack.
+     *
+     * @param packed The packed date.
+     * @return The unpacked date.
+     */
+    public static Date unpack(int packed) {
+        return new Date(packed);
     }
 
     /**
@@ -85,7 +170,7 @@ public class Date implements Comparable<Date> {
      * @return A string representation of this date.
      */
     public String toString() {
-        return month + "/" + day + "/" + year;
+        return getMonth() + "/" + getDay() + "/" + getYear();
     }
 
     /**
@@ -96,20 +181,12 @@ public class Date implements Comparable<Date> {
      * @return true if this date is valid, false otherwise.
      */
     public boolean isValid() {
+        int month = getMonth();
         if (month < 1 || month > 12) {
             return false;
         }
-
-        Calendar input = Calendar.getInstance();
-        input.setLenient(false); // only valid calendar date
-        input.set(year, month - 1, day);
-
-        try {
-            input.getTime();
-            return true;
-        } catch (Exception e) {
-            return false; // not a valid calendar date
-        }
+        int day = getDay();
+        return getYear() >= 1 && day >= 1 && day <= getMaxDayOfMonth(getYear(), month);
     }
 
     /**
@@ -119,13 +196,14 @@ public class Date implements Comparable<Date> {
      * @return true if this dob is underage, false otherwise.
      */
     public boolean isUnderage() {
-        Calendar today = Calendar.getInstance();
-        int currentMonth = today.get(Calendar.MONTH) + 1;
-        int currentYear = today.get(Calendar.YEAR);
+        int today = today();
+        int currentMonth = today >> 8 & MAX_FIELD;
+        int currentYear = today >>> 16;
+        int year = getYear();
 
         if (currentYear - year < 18) {
             return true;
-        } else if (currentYear - year == 18 && month > currentMonth) {
+        } else if (currentYear - year == 18 && getMonth() > currentMonth) {
             return true;
         }
 
@@ -133,16 +211,12 @@ public class Date implements Comparable<Date> {
     }
 
     /**
-     * Checks if this expiry date is expired.
+     * Checks if this expiry date is expired, that is, before today.
      *
      * @return true if this date is expired, false otherwise.
      */
     public boolean isExpired() {
-        Calendar today = Calendar.getInstance();
-
-        Calendar input = Calendar.getInstance();
-        input.set(year, month - 1, day);
-        return input.before(today);
+        return packed < today();
     }
 
     /**
@@ -152,10 +226,10 @@ public class Date implements Comparable<Date> {
      * @return The expiry date.
      */
     public static Date getExpirationDate(String string) {
-        Calendar today = Calendar.getInstance();
-        int year = today.get(Calendar.YEAR);
-        int month = today.get(Calendar.MONTH) + 1;
-        int day = today.get(Calendar.DAY_OF_MONTH);
+        int today = today();
+        int year = today >>> 16;
+        int month = today >> 8 & MAX_FIELD;
+        int day = today & MAX_FIELD;
 
         switch (string) {
             case "B":
@@ -217,17 +291,38 @@ public class Date implements Comparable<Date> {
      * is before the Date argument; and a value greater than 0 if this Date is after the Date argument.
      */
     public int compareTo(Date date) {
-        if (this.year != date.year) {
-            return this.year - date.year;
-        }
-        if (this.month != date.month) {
-            return this.month - date.month;
-        }
-        return this.day - date.day;
+        return Integer.compare(this.packed, date.packed);
     } // returns -1 if this is earlier
       // returns 0 if it's the same day
       // returns 1 if this is later
 
+    /**
+     * Indicates whether some other object is the same calendar date as this one.
+     *
+     * @param obj The object to compare for equality.
+     * @return True if the objects represent the same date, false otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return packed == ((Date) obj).packed;
+    }
+
+    /**
+     * Returns a hash code for this date, consistent with equals and compareTo.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        return packed;
+    }
+
     /**
      * Main method for testing the Date class functionality.
      *
@@ -1,15 +1,18 @@
 package fitness.studiomanager;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Represents a Family member, including its profile, expiry date, home studio, guest pass availability, and bill.
  * Provides functionality to calculate the bill.
+ * The guest pass is taken and given back atomically, so concurrent check-ins cannot use it twice.
  *
  * @author Woogyeom Sim
  */
 public class Family extends Member {
     private static final double MONTHLY_FEE = 49.99;
     private static final int BILLING_INTERVAL = 3;
-    private boolean guest;
+    private final AtomicBoolean guest;
 
     /**
      * Constructs a Family object with specified profile, expiry date, home studio.
@@ -21,7 +24,7 @@ public class Family extends Member {
      */
     public Family(Profile profile, Date expire, Location homeStudio) {
         super(profile, expire, homeStudio);
-        this.guest = true;
+        this.guest = new AtomicBoolean(true);
     }
 
     /**
@@ -48,7 +51,7 @@ public class Family extends Member {
      * @return The guest pass availability.
      */
     public boolean getGuest() {
-        return guest;
+        return guest.get();
     }
 
     /**
@@ -57,7 +60,25 @@ public class Family extends Member {
      * @param bool The new guest pass availability.
      */
     public void setGuest(boolean bool) {
-        guest = bool;
+        guest.set(bool);
+    }
+
+    /**
+     * Uses the guest pass, unless it is already in use.
+     *
+     * @return True if the guest pass was used, false if it was not available.
+     */
+    public boolean useGuest() {
+        return guest.compareAndSet(true, false);
+    }
+
+    /**
+     * Gives back the guest pass.
+     *
+     * @return True if the pass was given back, false if it was not in use.
+     */
+    public boolean returnGuest() {
+        return guest.compareAndSet(false, true);
     }
 
     public double bill() {
@@ -2,7 +2,8 @@ package fitness.studiomanager;
 
 /**
  * Represents a fitness class, including its class info, instructor, studio, time.
- * Allows for managing Fitness properties and its member list.
+ * Allows for managing Fitness properties and its rosters of members and guests,
+ * which hold the IDs the member list assigned rather than the members themselves.
  *
  * @author Aravind Chundu, Woogyeom Sim
  */
@@ -11,12 +12,12 @@ public class FitnessClass {
     private Instructor instructor;
     private Location studio;
     private Time time;
-    private MemberList members;
-    private MemberList guests;
+    private Roster members;
+    private Roster guests;
 
     /**
      * Constructs a fitness class object with specified class info, instructor, studio, and time.
-     * Initializes its member list and guest list.
+     * Initializes its member roster and guest roster.
      *
      * @param classInfo The class information of the class.
      * @param instructor The instructor of the class.
@@ -28,8 +29,8 @@ public class FitnessClass {
         this.instructor = instructor;
         this.studio = studio;
         this.time = time;
-        this.members = new MemberList();
-        this.guests = new MemberList();
+        this.members = new Roster();
+        this.guests = new Roster();
     }
 
     /**
@@ -105,75 +106,101 @@ public class FitnessClass {
     }
 
     /**
-     * Returns the list of members enrolled in the class.
+     * Returns the roster of members enrolled in the class.
      *
-     * @return The list of members.
+     * @return The roster of member IDs.
      */
-    public MemberList getMembers() {
+    public Roster getMembers() {
         return members;
     }
 
     /**
-     * Sets the list of members enrolled in the class.
+     * Sets the roster of members enrolled in the class.
      *
-     * @param members The list of members to be set.
+     * @param members The roster of member IDs to be set.
      */
-    public void setMembers(MemberList members) {
+    public void setMembers(Roster members) {
         this.members = members;
     }
 
     /**
-     * Returns the list of guests attending the class.
+     * Returns the roster of guests attending the class.
      *
-     * @return The list of guests.
+     * @return The roster of guest IDs.
      */
-    public MemberList getGuests() {
+    public Roster getGuests() {
         return guests;
     }
 
     /**
-     * Sets the list of guests attending the class.
+     * Sets the roster of guests attending the class.
      *
-     * @param guests The list of guests to be set.
+     * @param guests The roster of guest IDs to be set.
      */
-    public void setGuests(MemberList guests) {
+    public void setGuests(Roster guests) {
         this.guests = guests;
     }
 
     /**
-     * Adds a member to the list of members enrolled in the class.
+     * Checks if a member is enrolled in the class.
+     *
+     * @param member The member to check.
+     * @return True if the member is in the roster, false otherwise.
+     */
+    public boolean hasMember(Member member) {
+        return members.contains(member.getId());
+    }
+
+    /**
+     * Checks if a member attends the class as a guest.
+     *
+     * @param guest The guest to check.
+     * @return True if the guest is in the roster, false otherwise.
+     */
+    public boolean hasGuest(Member guest) {
+        return guests.contains(guest.getId());
+    }
+
+    /**
+     * Adds a member to the roster of members enrolled in the class,
+     * and marks the time of the class as booked for the member.
      *
      * @param member The member to be added.
      */
     public void addMember(Member member) {
-        members.add(member);
+        if (members.add(member.getId())) {
+            member.book(time);
+        }
     }
 
     /**
-     * Removes a member from the list of members enrolled in the class.
+     * Removes a member from the roster of members enrolled in the class,
+     * and frees the time of the class for the member.
      *
      * @param member The member to be removed.
      */
     public void removeMember(Member member) {
-        members.remove(member);
+        if (members.remove(member.getId())) {
+            member.release(time);
+        }
     }
 
     /**
-     * Adds a guest to the list of guests attending the class.
+     * Adds a guest to the roster of guests attending the class.
      *
      * @param guest The guest to be added.
      */
     public void addGuest(Member guest) {
-        guests.add(guest);
+        guests.add(guest.getId());
     }
 
     /**
-     * Removes a guest from the list of guests attending the class.
+     * Removes a guest from the roster of guests attending the class.
      *
      * @param guest The guest to be removed.
      */
     public void removeGuest(Member guest) {
-        guests.remove(guest);
+        guests.remove(guest.getId());
     }
 
     /**
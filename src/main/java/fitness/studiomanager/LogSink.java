@@ -0,0 +1,179 @@
+package fitness.studiomanager;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.TextArea;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Represents the output console of the studio manager. Messages printed from any thread are queued and
+ * written to the text area once per frame in a single append, so printing hundreds of lines in a row
+ * costs one layout pass instead of one per line.
+ *
+ * Only the last lines are retained: messages are split into lines kept in a ring buffer, so a report
+ * printed as one message counts for every line it holds, and once the text area holds twice as many
+ * lines as the ring, it is replaced by the ring's contents. Every message is also mirrored to a rotating
+ * log file, one record per frame, so nothing is lost when old lines are dropped.
+ *
+ * @author Woogyeom Sim
+ */
+class LogSink {
+    private static final Logger LOGGER = Logger.getLogger(LogSink.class.getName());
+
+    private final TextArea textArea;
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final String[] history; // ring buffer of the last lines, oldest at head
+    private int head;
+    private int size;
+    private int shown; // lines in the text area since it was last cleared or trimmed
+    private FileHandler file;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+
+    /**
+     * Constructs a log sink that writes to a text area and keeps a given number of lines.
+     *
+     * @param textArea The text area.
+     * @param capacity The number of lines retained in the text area.
+     */
+    LogSink(TextArea textArea, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.textArea = textArea;
+        this.history = new String[capacity];
+    }
+
+    /**
+     * Mirrors every message to log files named by a FileHandler pattern, e.g. "console%g.log",
+     * rotating to the next file when one reaches the size limit.
+     *
+     * @param pattern The FileHandler pattern of the log files.
+     * @param limit The maximum number of bytes written to one file.
+     * @param count The number of files to rotate through.
+     * @throws IOException If a log file cannot be opened.
+     */
+    public void mirrorTo(String pattern, int limit, int count) throws IOException {
+        FileHandler handler = new FileHandler(pattern, limit, count, true);
+        handler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage();
+            }
+        });
+        LOGGER.setUseParentHandlers(false);
+        LOGGER.addHandler(handler);
+        file = handler;
+    }
+
+    /**
+     * Starts writing queued messages to the text area once per frame.
+     */
+    public void start() {
+        timer.start();
+    }
+
+    /**
+     * Stops the frame timer, writes the queued messages and closes the log file.
+     */
+    public void stop() {
+        timer.stop();
+        flush();
+        if (file != null) {
+            LOGGER.removeHandler(file);
+            file.close();
+            file = null;
+        }
+    }
+
+    /**
+     * Queues a message, to be written at the next frame. May be called from any thread.
+     *
+     * @param message The message, without a line terminator.
+     */
+    public void print(String message) {
+        pending.add(message);
+    }
+
+    /**
+     * Clears the text area and the retained lines. Queued messages are still written.
+     * Must be called on the JavaFX application thread.
+     */
+    public void clear() {
+        textArea.clear();
+        head = 0;
+        size = 0;
+        shown = 0;
+    }
+
+    /**
+     * Writes the queued messages to the text area in one append, and to the log file in one record.
+     * Must be called on the JavaFX application thread.
+     */
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        StringBuilder batch = new StringBuilder();
+        String message;
+        while ((message = pending.poll()) != null) {
+            batch.append(message).append('\n');
+            for (int start = 0, end; start <= message.length(); start = end + 1) {
+                end = message.indexOf('\n', start);
+                if (end < 0) {
+                    end = message.length();
+                }
+                retain(message.substring(start, end));
+            } // one ring entry per line, so a multi-line report cannot outgrow the cap
+        }
+        if (file != null) {
+            LOGGER.log(Level.INFO, batch.toString());
+        }
+        if (shown > 2 * history.length) {
+            textArea.setText(retained());
+            shown = size;
+        } else {
+            textArea.appendText(batch.toString());
+        }
+        textArea.positionCaret(textArea.getLength());
+    }
+
+    /**
+     * Adds a line to the ring buffer, dropping the oldest line if it is full.
+     *
+     * @param line The line, without a line terminator.
+     */
+    private void retain(String line) {
+        if (size < history.length) {
+            history[(head + size) % history.length] = line;
+            size++;
+        } else {
+            history[head] = line;
+            head = (head + 1) % history.length;
+        }
+        shown++;
+    }
+
+    /**
+     * Returns the retained lines from oldest to newest.
+     *
+     * @return The retained lines.
+     */
+    private String retained() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            text.append(history[(head + i) % history.length]).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -6,9 +6,17 @@ package fitness.studiomanager;
  * @author Woogyeom Sim, Aravind Chundu
  */
 public class Member implements Comparable<Member> {
+    /**
+     * The ID of a member that has not been added to a member list.
+     */
+    public static final int NO_ID = -1;
+
     private Profile profile;
     private Date expire;
     private Location homeStudio;
+    private int bookedTimes; // bit i is set while the member attends a class at Time.values()[i]
+    private int id = NO_ID;
+    private BillingEngine billing; // the totals tracking the member list holding the member, if any
 
     /**
      * Constructs a member object with specified profile, expiry date, and home studio.
@@ -59,6 +67,70 @@ public class Member implements Comparable<Member> {
         return homeStudio;
     }
 
+    /**
+     * Returns the ID assigned to the member by the member list it was added to.
+     *
+     * @return The ID of the member, or NO_ID if it is in no member list.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the member. Only a member list assigns IDs.
+     *
+     * @param id The ID to be set.
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the billing engine that counts the bill of the member.
+     *
+     * @return The billing engine, or null if the member is in no tracked member list.
+     */
+    BillingEngine getBilling() {
+        return billing;
+    }
+
+    /**
+     * Sets the billing engine that counts the bill of the member. Only a billing engine or the list it tracks sets it.
+     *
+     * @param billing The billing engine, or null.
+     */
+    void setBilling(BillingEngine billing) {
+        this.billing = billing;
+    }
+
+    /**
+     * Checks whether the member attends a class at the given time.
+     *
+     * @param time The time of the class.
+     * @return True if a class at that time is already booked, false otherwise.
+     */
+    boolean isBooked(Time time) {
+        return (bookedTimes & 1 << time.ordinal()) != 0;
+    }
+
+    /**
+     * Marks the given time as booked by a class the member attends.
+     *
+     * @param time The time of the class.
+     */
+    void book(Time time) {
+        bookedTimes |= 1 << time.ordinal();
+    }
+
+    /**
+     * Marks the given time as free again after the member leaves a class.
+     *
+     * @param time The time of the class.
+     */
+    void release(Time time) {
+        bookedTimes &= ~(1 << time.ordinal());
+    }
+
     /**
      * Returns a string representation of the member.
      *
@@ -2,12 +2,31 @@ package fitness.studiomanager;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Scanner;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
 
 /**
- * Represents a list of members, enabling operations such as add, remove, find, sort
- * and print members in various orders (by profile, county). It employs a dynamic array
- * to store the members, which grows as needed to accommodate new additions.
+ * Represents a list of members, enabling operations such as add, remove, find, and
+ * print members in various orders (by profile, county) through sorted views that leave
+ * the storage order untouched. It employs a dynamic array
+ * to store the members, which doubles in capacity as needed to accommodate new additions, and a hash
+ * index from profile to array position so that lookups do not scan the array.
+ * Every member added is given a dense int ID that stays with it until it is removed and is never reused,
+ * so fitness class rosters, snapshots and the attendance log refer to members by ID instead of by profile.
  * Also, it has functionality to read the text file and load members from it.
  *
  * @author Aravind Chundu, Woogyeom Sim
@@ -15,42 +34,114 @@ import java.util.Scanner;
 public class MemberList {
     private static final int NOT_FOUND = -1;
     private static final int INITIAL_CAPACITY = 4;
-    private static final int GROWTH = 4;
+    private static final long MAP_CHUNK_SIZE = 64L << 20; // bytes mapped at a time by loadMapped
+    private static final long MIN_PARALLEL_CHUNK_SIZE = 1L << 20; // smallest chunk loadParallel hands to a thread
+    private static final int ROW_LENGTH = 128; // typical length of a printed member row, for presizing
+    private static final int MAX_PRESIZED_ROWS = 8192; // rows a report buffer is presized for at most
+    private static final int PROGRESS_INTERVAL = 1 << 14; // lines parsed between progress reports
+
+    /**
+     * Orders members by profile: last name, first name, then date of birth.
+     */
+    public static final Comparator<Member> BY_PROFILE = Member::compareTo;
+
+    /**
+     * Orders members by the county of their home studio, then by its zipcode.
+     */
+    public static final Comparator<Member> BY_COUNTY = Comparator
+            .comparing((Member member) -> member.getHomeStudio().getCounty())
+            .thenComparing(member -> member.getHomeStudio().getZipcode());
+
+    /**
+     * Orders members by their next due amount.
+     */
+    public static final Comparator<Member> BY_FEE = Comparator.comparingDouble(Member::bill);
+
+    /**
+     * Writes a report line by line to a destination, e.g. MemberList.writeByMember.
+     */
+    @FunctionalInterface
+    public interface Report {
+        /**
+         * Writes the report.
+         *
+         * @param out The destination.
+         * @throws IOException If writing to the destination fails.
+         */
+        void writeTo(Appendable out) throws IOException;
+    }
+
     private Member[] members;
     private int size;
+    private HashMap<Profile, Integer> index;
+    private Member[] registered; // members by ID; a removed member leaves its slot empty
+    private int nextId;
+    private BillingEngine billing; // the fee totals tracking the list, if any
 
     /**
      * Constructs an empty member list with an initial capacity.
      */
     public MemberList() {
-        members = new Member[INITIAL_CAPACITY];
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty member list presized to hold the given number of members
+     * without growing, e.g. from the line count of a roster file.
+     *
+     * @param capacity The number of members to reserve room for.
+     */
+    public MemberList(int capacity) {
+        members = new Member[Math.max(capacity, INITIAL_CAPACITY)];
         size = 0;
+        index = HashMap.newHashMap(capacity);
+        registered = new Member[members.length];
+        nextId = 0;
+    }
+
+    /**
+     * Constructs a copy of a member list that holds the same members under the same IDs, so members
+     * added to the copy, e.g. by a load running in the background, do not show in the original.
+     * The copy is not tracked by the fee totals of the original until it is published in its place.
+     *
+     * @param other The member list to copy.
+     */
+    public MemberList(MemberList other) {
+        members = Arrays.copyOf(other.members, other.members.length);
+        size = other.size;
+        index = new HashMap<>(other.index);
+        registered = Arrays.copyOf(other.registered, other.registered.length);
+        nextId = other.nextId;
     }
 
     /**
      * Finds the index of a member in the list.
+     * Profiles are matched ignoring case of the names, as in Profile.compareTo.
      *
      * @param member The member to find.
      * @return The index of the member if found, else returns NOT_FOUND.
      */
     public int find(Member member) {
-        for (int i = 0; i < size; i++) {
-            if (members[i].getProfile().compareTo(member.getProfile()) == 0) {
-                return i;
-            }
-        }
-        return NOT_FOUND;
+        Integer i = index.get(member.getProfile());
+        return i == null ? NOT_FOUND : i;
     }
 
     /**
-     * Increases the capacity of the member list.
+     * Doubles the capacity of the member list, so appends are amortized constant time.
      */
     private void grow() {
-        Member[] newMembers = new Member[members.length + GROWTH];
-        for (int i = 0; i < size; i++) {
-            newMembers[i] = members[i];
+        members = Arrays.copyOf(members, members.length * 2);
+    }
+
+    /**
+     * Ensures the member list can hold at least the given number of members without growing again.
+     *
+     * @param capacity The minimum capacity required.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > members.length) {
+            members = Arrays.copyOf(members, Math.max(capacity, members.length * 2));
         }
-        members = newMembers;
     }
 
     /**
@@ -78,30 +169,157 @@ public class MemberList {
         } //if members is full, increase it's size
 
         members[size] = member;
+        index.put(member.getProfile(), size);
+        size++;
+        register(member, nextId);
+        return true;
+    }
+
+    /**
+     * Adds a member to the list under a given ID, e.g. when restoring a snapshot or replaying the attendance log.
+     * Later members get IDs above it.
+     *
+     * @param member The member to add.
+     * @param id The ID the member had when it was saved.
+     * @return True if the member is added successfully, false if the member already exists.
+     * @throws IllegalArgumentException If the ID is negative or held by another member.
+     */
+    boolean add(Member member, int id) {
+        if (id < 0 || byId(id) != null) {
+            throw new IllegalArgumentException("Member ID " + id + " is not available");
+        }
+        if (contains(member)) {
+            return false;
+        }
+        if (size == members.length) {
+            grow();
+        }
+        members[size] = member;
+        index.put(member.getProfile(), size);
         size++;
+        register(member, id);
         return true;
     }
 
     /**
-     * Removes a member from the list.
+     * Adds every member of a collection to the list in iteration order, in a single pass.
+     * As with add, a member whose profile is already in the list is skipped, so the first one wins.
+     *
+     * @param newMembers The members to add.
+     * @return The number of members actually added.
+     */
+    public int addAll(Collection<Member> newMembers) {
+        ensureCapacity(size + newMembers.size());
+        int added = 0;
+        for (Member member : newMembers) {
+            if (index.putIfAbsent(member.getProfile(), size) == null) {
+                members[size] = member;
+                size++;
+                added++;
+                register(member, nextId);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Removes a member from the list. The members after it move up one place, so the storage order
+     * of the others is kept, and their index entries follow them.
      *
      * @param member The member to remove.
      * @return True if the member is removed successfully, false if the member is not found.
      */
     public boolean remove(Member member) {
-        int index = find(member);
-        if (index == NOT_FOUND) {
+        int position = find(member);
+        if (position == NOT_FOUND) {
             return false;
         } // return false if member is not in the member list
 
-        for (int i = index; i < size-1; i++) {
-            members[i] = members[i+1];
+        Member removed = members[position];
+        index.remove(removed.getProfile());
+        registered[removed.getId()] = null;
+        if (billing != null) {
+            billing.removed(removed);
+            removed.setBilling(null);
         }
+        for (int i = position; i < size-1; i++) {
+            members[i] = members[i+1];
+            index.put(members[i].getProfile(), i);
+        } // shift the tail down and keep the index pointing at the new positions
         size--;
         members[size] = null;
         return true;
     }
 
+    /**
+     * Gives a newly added member its ID and adds its bill to the fee totals tracking the list, if any.
+     * IDs are never reused, so a roster holding the ID of a removed member cannot resolve to someone else.
+     *
+     * @param member The member just added.
+     * @param id The ID of the member.
+     */
+    private void register(Member member, int id) {
+        if (id >= registered.length) {
+            registered = Arrays.copyOf(registered, Math.max(id + 1, registered.length * 2));
+        }
+        member.setId(id);
+        registered[id] = member;
+        nextId = Math.max(nextId, id + 1);
+        if (billing != null) {
+            billing.added(member);
+            member.setBilling(billing);
+        }
+    }
+
+    /**
+     * Sets the billing engine tracking the list. Only a billing engine sets it.
+     *
+     * @param billing The billing engine, or null.
+     */
+    void setBilling(BillingEngine billing) {
+        this.billing = billing;
+    }
+
+    /**
+     * Returns the member holding an ID assigned by this list, in constant time.
+     *
+     * @param id The ID of the member.
+     * @return The member, or null if no member currently holds the ID.
+     */
+    public Member byId(int id) {
+        return id >= 0 && id < nextId ? registered[id] : null;
+    }
+
+    /**
+     * Returns the ID of the member with a given profile.
+     * Profiles are matched ignoring case of the names, as in find.
+     *
+     * @param profile The profile of the member.
+     * @return The ID of the member, or Member.NO_ID if no member has the profile.
+     */
+    public int idOf(Profile profile) {
+        Integer i = index.get(profile);
+        return i == null ? Member.NO_ID : members[i].getId();
+    }
+
+    /**
+     * Returns the ID the next member added will get, which is one past the highest ID ever assigned.
+     *
+     * @return The next ID.
+     */
+    int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Makes sure IDs below a given one are never assigned again, e.g. those of members removed before a snapshot.
+     *
+     * @param nextId The lowest ID that may still be assigned.
+     */
+    void reserveIds(int nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
     /**
      * Loads members from a text file and adds them to the list.
      *
@@ -109,161 +327,263 @@ public class MemberList {
      * @throws IOException If an I/O error occurs.
      */
     public void load(File file) throws IOException {
+        load(file, null);
+    }
 
-        Scanner scanner = new Scanner(file);
-        while (scanner.hasNextLine()) {
-            String data = scanner.nextLine();
-            if (data.trim().isEmpty()) {
-                continue;
+    /**
+     * Loads members from a text file and adds them to the list, reporting the number of bytes parsed as it goes.
+     * Interrupting the loading thread stops the load with a ClosedByInterruptException.
+     *
+     * @param file The file to load members from.
+     * @param progress Receives the number of bytes parsed so far, or null.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void load(File file, LongConsumer progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            RosterParser parser = new RosterParser(channel);
+            int lines = 0;
+            while (parser.nextLine()) {
+                add(revokeExpiredGuestPass(parser.parseMember()));
+                if (progress != null && ++lines % PROGRESS_INTERVAL == 0) {
+                    progress.accept(parser.getBytesParsed());
+                }
+            }
+            if (progress != null) {
+                progress.accept(parser.getBytesParsed());
             }
-            String[] tokens = data.split(" +");
+        }
+    }
 
-            if (tokens.length != 6) {
-                throw new IOException("Expected 6 tokens, but found " + tokens.length);
+    /**
+     * Loads members from a text file by memory-mapping it and parsing the mapped bytes in place.
+     * The file is mapped in newline-aligned regions, so files larger than 2 GB are supported and
+     * no per-line copy of the input is made.
+     *
+     * @param file The file to load members from.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void loadMapped(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            RosterParser parser = null;
+            for (ByteBuffer chunk : RosterParser.mapLines(channel, MAP_CHUNK_SIZE)) {
+                if (parser == null) {
+                    parser = new RosterParser(chunk);
+                } else {
+                    parser.reset(chunk);
+                }
+                while (parser.nextLine()) {
+                    add(revokeExpiredGuestPass(parser.parseMember()));
+                }
             }
-            if (!(tokens[0].equalsIgnoreCase("B")) && !(tokens[0].equalsIgnoreCase("F")) && !(tokens[0].equalsIgnoreCase("P"))) {
-                throw new IOException("Invalid membership type. Expected B, F or P but got: "+ tokens[0]);
+        }
+    }
+
+    /**
+     * Loads members from a text file using several threads. The file is mapped and split into
+     * newline-aligned chunks, which are parsed concurrently on a ForkJoinPool into per-chunk batches.
+     * The batches are then merged in file order, so a duplicate profile keeps its first occurrence
+     * in the file exactly as load does.
+     *
+     * @param file The file to load members from.
+     * @param parallelism The number of parsing threads.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void loadParallel(File file, int parallelism) throws IOException {
+        List<Callable<List<Member>>> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE, Math.min(MAP_CHUNK_SIZE, channel.size() / (parallelism * 4L) + 1));
+            for (ByteBuffer chunk : RosterParser.mapLines(channel, chunkSize)) {
+                tasks.add(() -> parseBatch(chunk));
             }
+        } // the mappings stay valid after the channel is closed
 
-            Date birthDate = stringToDate(tokens[3]);
-            Date expirationDate = stringToDate(tokens[4]);
-            Location location;
-
-            if (tokens[5].equalsIgnoreCase("Bridgewater")) {
-                location = Location.BRIDGEWATER;
-            } else if (tokens[5].equalsIgnoreCase("Edison")) {
-                location = Location.EDISON;
-            } else if (tokens[5].equalsIgnoreCase("Franklin")) {
-                location = Location.FRANKLIN;
-            } else if (tokens[5].equalsIgnoreCase("Piscataway")) {
-                location = Location.PISCATAWAY;
-            } else if (tokens[5].equalsIgnoreCase("Somerville")) {
-                location = Location.SOMERVILLE;
-            } else {
-                throw new IllegalArgumentException(tokens[5] + ": Invalid studio location!");
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<List<Member>>> batches = pool.invokeAll(tasks);
+            for (Future<List<Member>> batch : batches) {
+                addAll(batch.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Loading " + file + " was interrupted");
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case IOException io -> throw io;
+                case RuntimeException runtime -> throw runtime;
+                default -> throw new IOException(e.getCause());
             }
+        } finally {
+            pool.shutdown();
+        }
+    }
 
-            Profile profile = new Profile(tokens[1], tokens[2], birthDate);
-            Member newMember;
+    /**
+     * Parses one chunk of a roster into a batch of members, in file order.
+     *
+     * @param chunk The mapped chunk holding whole lines.
+     * @return The members of the chunk.
+     * @throws IOException If a line is malformed.
+     */
+    private static List<Member> parseBatch(ByteBuffer chunk) throws IOException {
+        List<Member> batch = new ArrayList<>();
+        RosterParser parser = new RosterParser(chunk);
+        while (parser.nextLine()) {
+            batch.add(revokeExpiredGuestPass(parser.parseMember()));
+        }
+        return batch;
+    }
 
-            if (tokens[0].equalsIgnoreCase("B")) {
-                newMember = new Basic(profile, expirationDate, location);
-                add(newMember);
-            } else if (tokens[0].equalsIgnoreCase("F")) {
-                newMember = new Family(profile, expirationDate, location);
-                if (expirationDate.isExpired()) { // Check if member is expired or not
-                    ((Family) newMember).setGuest(false);
-                }
-                add(newMember);
-            } else {
-                newMember = new Premium(profile, expirationDate, location);
-                if (expirationDate.isExpired()) { // Check if member is expired or not
-                    ((Premium) newMember).setGuestPass(0);
-                }
-                add(newMember);
+    /**
+     * Takes the guest pass away from an expired Family or Premium member.
+     *
+     * @param member The member read from a roster.
+     * @return The same member.
+     */
+    private static Member revokeExpiredGuestPass(Member member) {
+        if (member.getExpire().isExpired()) { // Check if member is expired or not
+            switch (member) {
+                case Family family -> family.setGuest(false);
+                case Premium premium -> premium.setGuestPass(0);
+                default -> {}
             }
-
         }
+        return member;
+    }
+
+    /**
+     * Returns a sorted view of the members. The sort is stable and works on a copy,
+     * so the storage order seen through getMember(int) is never changed.
+     *
+     * @param order The comparator to sort by.
+     * @return A new array holding the members in the given order.
+     */
+    public Member[] sortedBy(Comparator<Member> order) {
+        Member[] view = Arrays.copyOf(members, size);
+        Arrays.sort(view, order);
+        return view;
     }
 
     /**
-     * Converts a string representation of a date to a Date object.
+     * Writes members sorted by county, one per line.
      *
-     * @param string The string representation of the date.
-     * @return The Date object.
-     * @throws IllegalArgumentException If the string representation is invalid.
+     * @param out The destination, e.g. a buffered Writer or a StringBuilder.
+     * @throws IOException If writing to the destination fails.
      */
-    private Date stringToDate(String string) throws IllegalArgumentException {
-        String[] tokens = string.split("/");
+    public void writeByCounty(Appendable out) throws IOException {
+        writeRows(sortedBy(BY_COUNTY), size, out, false);
+    }
 
-        int year = Integer.parseInt(tokens[2]);
-        int month = Integer.parseInt(tokens[0]);
-        int day = Integer.parseInt(tokens[1]);
+    /**
+     * Writes members sorted by member profile, one per line.
+     *
+     * @param out The destination, e.g. a buffered Writer or a StringBuilder.
+     * @throws IOException If writing to the destination fails.
+     */
+    public void writeByMember(Appendable out) throws IOException {
+        writeRows(sortedBy(BY_PROFILE), size, out, false);
+    }
 
-        return new Date(month, day, year);
+    /**
+     * Writes members in storage order with their next due amount, one per line.
+     *
+     * @param out The destination, e.g. a buffered Writer or a StringBuilder.
+     * @throws IOException If writing to the destination fails.
+     */
+    public void writeFees(Appendable out) throws IOException {
+        writeRows(members, size, out, true);
     }
 
     /**
-     * Prints members sorted by county.
+     * Writes the members of a roster sorted by member profile, one per line.
+     * IDs of members no longer in this list are skipped.
+     *
+     * @param roster The roster of IDs assigned by this list.
+     * @param out The destination, e.g. a buffered Writer or a StringBuilder.
+     * @throws IOException If writing to the destination fails.
      */
-    public String printByCounty() {
-        for (int i = 0; i < size - 1; i++) {
-            int minIndex = i;
-            for (int j = i + 1; j < size; j++) {
-                if (members[j].getHomeStudio().getCounty().compareTo(members[minIndex].getHomeStudio().getCounty()) < 0) {
-                    minIndex = j;
-                } else if (members[j].getHomeStudio().getCounty().compareTo(members[minIndex].getHomeStudio().getCounty()) == 0) {
-                    if (members[j].getHomeStudio().getZipcode().compareTo(members[minIndex].getHomeStudio().getZipcode()) < 0) {
-                        minIndex = j;
-                    }
-                }
+    public void writeByMember(Roster roster, Appendable out) throws IOException {
+        Member[] view = new Member[roster.getSize()];
+        int count = 0;
+        for (int i = 0; i < roster.getSize(); i++) {
+            Member member = byId(roster.getId(i));
+            if (member != null) {
+                view[count++] = member;
             }
-
-            Member temp = members[minIndex];
-            members[minIndex] = members[i];
-            members[i] = temp;
         }
+        Arrays.sort(view, 0, count, BY_PROFILE);
+        writeRows(view, count, out, false);
+    }
 
-        if (size == 0) {
-            return "Members List is empty!";
-        } else {
-            String result = "";
-            for (Member member : members) {
-                if (member != null) {
-                    result = result.concat(member.toString() + "\n");
-                }
+    /**
+     * Writes each member of a view exactly once, terminating every row with a newline.
+     *
+     * @param view The members to write.
+     * @param count The number of leading entries of the view to write.
+     * @param out The destination.
+     * @param fees True to append the next due amount to each row.
+     * @throws IOException If writing to the destination fails.
+     */
+    private void writeRows(Member[] view, int count, Appendable out, boolean fees) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Member member = view[i];
+            out.append(member.toString());
+            if (fees) {
+                out.append(" [next due: $").append(String.valueOf(member.bill())).append(']');
             }
-            result = result.substring(0, result.length() - 1);
-            return result;
+            out.append('\n');
         }
     }
 
     /**
-     * Prints members sorted by member profile.
+     * Prints members sorted by county.
      */
-    public String printByMember() { // We need this sCommand boolean otherwise we need one more method
-        for (int i = 0; i < size - 1; i++) {
-            int minIndex = i;
-            for (int j = i + 1; j < size; j++) {
-                if (members[j].getProfile().compareTo(members[minIndex].getProfile()) < 0) {
-                    minIndex = j;
-                }
-            }
+    public String printByCounty() {
+        return size == 0 ? "Members List is empty!" : render(this::writeByCounty, size);
+    }
 
-            Member temp = members[minIndex];
-            members[minIndex] = members[i];
-            members[i] = temp;
-        }
+    /**
+     * Prints members sorted by member profile.
+     */
+    public String printByMember() {
+        return size == 0 ? "Members List is empty!" : render(this::writeByMember, size);
+    }
 
-        if (size == 0) {
-            return "Members List is empty!";
-        } else {
-            String result = "";
-            for (Member member : members) {
-                if (member != null) {
-                    result = result.concat(member.toString() + "\n");
-                }
-            }
-            result = result.substring(0, result.length() - 1);
-            return result;
-        }
+    /**
+     * Prints the members of a roster sorted by member profile.
+     *
+     * @param roster The roster of IDs assigned by this list.
+     * @return The members of the roster, one per line.
+     */
+    public String printByMember(Roster roster) {
+        return roster.isEmpty() ? "Members List is empty!" : render(out -> writeByMember(roster, out), roster.getSize());
     }
 
     /**
      * Prints member fees.
      */
     public String printFees() {
-        if (size == 0) {
-            return "Members List is empty!";
+        return size == 0 ? "Members List is empty!" : render(this::writeFees, size);
+    }
+
+    /**
+     * Writes a report into a string. The buffer is presized for the expected rows, up to a cap,
+     * so a large list does not allocate its whole output up front.
+     *
+     * @param report The report to write.
+     * @param rows The expected number of rows.
+     * @return The report without its final newline.
+     */
+    public static String render(Report report, int rows) {
+        StringBuilder result = new StringBuilder(Math.min(rows, MAX_PRESIZED_ROWS) * ROW_LENGTH);
+        try {
+            report.writeTo(result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringBuilder never throws
         }
-        String result = "";
-        for (Member member : members) {
-            if (member != null) {
-                result = result.concat(member + " [next due: $" + member.bill() + "]\n");
-            }
+        if (!result.isEmpty() && result.charAt(result.length() - 1) == '\n') {
+            result.setLength(result.length() - 1);
         }
-        result = result.substring(0, result.length() - 1);
-        return result;
+        return result.toString();
     }
 
     /**
@@ -0,0 +1,91 @@
+package fitness.studiomanager;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.Arrays;
+
+/**
+ * Represents the rows of the member browser: a sorted view of the member list, optionally filtered by name.
+ * The rows are held in the array returned by MemberList.sortedBy, so the table reads a row in constant time
+ * and only the cells of the visible rows are ever created. Showing a new view replaces all rows in one change.
+ *
+ * @author Woogyeom Sim
+ */
+class MemberTableModel extends ObservableListBase<Member> {
+    private Member[] rows = new Member[0];
+    private int size;
+
+    /**
+     * Constructs a model showing no rows.
+     */
+    MemberTableModel() {
+    }
+
+    /**
+     * Shows the members of a sorted view whose first or last name starts with a filter, ignoring case.
+     * The view is filtered in place.
+     *
+     * @param view The sorted view, which the model takes over.
+     * @param filter The start of a first or last name, or an empty string to show every member.
+     */
+    public void show(Member[] view, String filter) {
+        int count = view.length;
+        if (!filter.isEmpty()) {
+            count = 0;
+            for (Member member : view) {
+                Profile profile = member.getProfile();
+                if (startsWith(profile.getFname(), filter) || startsWith(profile.getLname(), filter)) {
+                    view[count++] = member;
+                }
+            }
+        }
+        Member[] old = rows;
+        int oldSize = size;
+        rows = view;
+        size = count;
+
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, Arrays.asList(old).subList(0, oldSize));
+        }
+        if (count > 0) {
+            nextAdd(0, count);
+        }
+        endChange();
+    }
+
+    /**
+     * Checks if a name starts with a prefix, ignoring case.
+     *
+     * @param name The name.
+     * @param prefix The prefix.
+     * @return True if the name starts with the prefix, false otherwise.
+     */
+    private static boolean startsWith(String name, String prefix) {
+        return name.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Returns the member shown in a row.
+     *
+     * @param index The row.
+     * @return The member.
+     */
+    @Override
+    public Member get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return rows[index];
+    }
+
+    /**
+     * Returns the number of rows shown.
+     *
+     * @return The number of rows.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,168 @@
+package fitness.studiomanager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents the dictionary of every first and last name held by a profile. Each distinct spelling is
+ * interned once and given an int code, so profiles share one string per name instead of one per member.
+ * Spellings that differ only in case share a fold ID, and fold IDs are ranked in the order of
+ * compareToIgnoreCase, so comparing two names is comparing two ints.
+ *
+ * Looking up a name already interned takes no lock, so parsers on several threads do not queue up on the
+ * dictionary; only adding a new name is synchronized. Ranks are rebuilt lazily the first time a name added
+ * since the last rebuild is compared; until then, the previous ranks stay valid for the names they cover.
+ * Names are never removed.
+ *
+ * @author Woogyeom Sim
+ */
+public class NameDictionary {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>(); // written only by add
+    private static final HashMap<String, Integer> foldIds = new HashMap<>();
+    private static volatile String[] names = new String[INITIAL_CAPACITY]; // by code
+    private static volatile int[] folds = new int[INITIAL_CAPACITY]; // fold ID by code
+    private static String[] foldKeys = new String[INITIAL_CAPACITY]; // case-folded name by fold ID
+    private static int numNames;
+    private static int numFolds;
+    private static volatile int[] ranks = new int[0]; // sort rank by fold ID, for the fold IDs it covers
+
+    /**
+     * Prevents instantiation; the dictionary is shared by all profiles.
+     */
+    private NameDictionary() {
+    }
+
+    /**
+     * Returns the code of a name, adding the name to the dictionary if it is new.
+     *
+     * @param name The name.
+     * @return The code of the name.
+     */
+    public static int intern(String name) {
+        Integer code = codes.get(name);
+        return code != null ? code : add(name);
+    }
+
+    /**
+     * Adds a name to the dictionary, unless another thread added it first. The code is published last,
+     * so a thread that finds it in codes also sees the name and fold ID stored under it.
+     *
+     * @param name The name.
+     * @return The code of the name.
+     */
+    private static synchronized int add(String name) {
+        Integer code = codes.get(name);
+        if (code != null) {
+            return code;
+        }
+        String key = fold(name);
+        Integer foldId = foldIds.get(key);
+        if (foldId == null) {
+            if (numFolds == foldKeys.length) {
+                foldKeys = Arrays.copyOf(foldKeys, numFolds * 2);
+            }
+            foldId = numFolds;
+            foldKeys[numFolds++] = key;
+            foldIds.put(key, foldId);
+        }
+        if (numNames == names.length) {
+            folds = Arrays.copyOf(folds, numNames * 2);
+            names = Arrays.copyOf(names, numNames * 2);
+        }
+        folds[numNames] = foldId;
+        names[numNames] = name;
+        codes.put(name, numNames);
+        return numNames++;
+    }
+
+    /**
+     * Returns the name with a given code, spelled as it was interned.
+     *
+     * @param code The code of the name.
+     * @return The name.
+     */
+    public static String name(int code) {
+        return names[code];
+    }
+
+    /**
+     * Returns the fold ID of a name, which is the same for every spelling that differs only in case.
+     *
+     * @param code The code of the name.
+     * @return The fold ID of the name.
+     */
+    public static int foldId(int code) {
+        return folds[code];
+    }
+
+    /**
+     * Compares two names ignoring case, in the same order as compareToIgnoreCase.
+     *
+     * @param code1 The code of the first name.
+     * @param code2 The code of the second name.
+     * @return A negative integer, zero, or a positive integer as the first name is less than, equal to, or greater than the second.
+     */
+    public static int compare(int code1, int code2) {
+        int[] folds = NameDictionary.folds;
+        int fold1 = folds[code1];
+        int fold2 = folds[code2];
+        if (fold1 == fold2) {
+            return 0;
+        }
+        int[] ranks = NameDictionary.ranks;
+        if (fold1 >= ranks.length || fold2 >= ranks.length) {
+            ranks = rank();
+        }
+        return Integer.compare(ranks[fold1], ranks[fold2]);
+    }
+
+    /**
+     * Returns the number of distinct spellings in the dictionary.
+     *
+     * @return The number of names.
+     */
+    public static synchronized int size() {
+        return numNames;
+    }
+
+    /**
+     * Ranks every fold ID in the order of its case-folded name, unless another thread already has.
+     *
+     * @return The ranks by fold ID.
+     */
+    private static synchronized int[] rank() {
+        if (ranks.length == numFolds) {
+            return ranks;
+        }
+        Integer[] order = new Integer[numFolds];
+        for (int i = 0; i < numFolds; i++) {
+            order[i] = i;
+        }
+        String[] keys = foldKeys;
+        Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+        int[] result = new int[numFolds];
+        for (int rank = 0; rank < numFolds; rank++) {
+            result[order[rank]] = rank;
+        }
+        ranks = result;
+        return result;
+    }
+
+    /**
+     * Folds the case of a name character by character, the same way compareToIgnoreCase does,
+     * so two names fold to the same key exactly when they are equal ignoring case.
+     *
+     * @param name The name.
+     * @return The case-folded name.
+     */
+    private static String fold(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+}
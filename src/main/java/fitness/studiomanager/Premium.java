@@ -1,15 +1,19 @@
 package fitness.studiomanager;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Represents a Premium member, including its profile, expiry date, home studio, number of available guess pass, and bill.
  * Provides functionality to calculate the bill.
+ * Guest passes are counted atomically, so concurrent check-ins can never spend more than the passes available.
  *
  * @author Woogyeom Sim
  */
 public class Premium extends Member {
     private static final double MONTHLY_FEE = 59.99;
     private static final int BILLING_INTERVAL = 12;
-    private int guestPass;
+    private static final int MAX_GUEST_PASS = 3;
+    private final AtomicInteger guestPass;
 
     /**
      * Constructs a Premium object with specified profile, expiry date, home studio.
@@ -21,7 +25,7 @@ public class Premium extends Member {
      */
     public Premium(Profile profile, Date expire, Location homeStudio) {
         super(profile, expire, homeStudio);
-        this.guestPass = 3;
+        this.guestPass = new AtomicInteger(MAX_GUEST_PASS);
     }
 
     /**
@@ -48,7 +52,7 @@ public class Premium extends Member {
      * @return The number of available guess pass.
      */
     public int getGuestPass() {
-        return guestPass;
+        return guestPass.get();
     }
 
     /**
@@ -57,7 +61,39 @@ public class Premium extends Member {
      * @param n The new number of available guess pass.
      */
     public void setGuestPass(int n) {
-        guestPass = n;
+        guestPass.set(n);
+    }
+
+    /**
+     * Uses up one guest pass, unless none is left.
+     *
+     * @return True if a guest pass was used, false if none was available.
+     */
+    public boolean useGuestPass() {
+        int passes;
+        do {
+            passes = guestPass.get();
+            if (passes <= 0) {
+                return false;
+            }
+        } while (!guestPass.compareAndSet(passes, passes - 1));
+        return true;
+    }
+
+    /**
+     * Gives back a guest pass, up to the number a membership starts with.
+     *
+     * @return True if the pass was given back, false if the member already had every pass.
+     */
+    public boolean returnGuestPass() {
+        int passes;
+        do {
+            passes = guestPass.get();
+            if (passes >= MAX_GUEST_PASS) {
+                return false;
+            }
+        } while (!guestPass.compareAndSet(passes, passes + 1));
+        return true;
     }
 
     /**
@@ -4,12 +4,13 @@ package fitness.studiomanager;
  * Represents a profile of a member, including first name, last name, and date of birth.
  * Provides methods to access and modify profile information, as well as comparisons between profiles.
  * Implements Comparable for sorting profiles based on last name, first name, and date of birth.
+ * Names are held as codes of the NameDictionary, so comparing profiles compares ints instead of folding case.
  *
  * @author Woogyeom Sim
  */
 public class Profile implements Comparable<Profile> {
-    private String fname;
-    private String lname;
+    private int fname; // codes of the NameDictionary
+    private int lname;
     private Date dob;
 
     /**
@@ -20,6 +21,17 @@ public class Profile implements Comparable<Profile> {
      * @param dob   Date of birth of the member.
      */
     public Profile(String fname, String lname, Date dob) {
+        this(NameDictionary.intern(fname), NameDictionary.intern(lname), dob);
+    }
+
+    /**
+     * Constructs a profile object from names already in the NameDictionary.
+     *
+     * @param fname The code of the first name.
+     * @param lname The code of the last name.
+     * @param dob   Date of birth of the member.
+     */
+    Profile(int fname, int lname, Date dob) {
         this.fname = fname;
         this.lname = lname;
         this.dob = dob;
@@ -31,7 +43,7 @@ public class Profile implements Comparable<Profile> {
      * @return The first name of the member.
      */
     public String getFname() {
-        return fname;
+        return NameDictionary.name(fname);
     }
 
     /**
@@ -40,7 +52,7 @@ public class Profile implements Comparable<Profile> {
      * @param fname The first name to set.
      */
     public void setFname(String fname) {
-        this.fname = fname;
+        this.fname = NameDictionary.intern(fname);
     }
 
     /**
@@ -49,7 +61,7 @@ public class Profile implements Comparable<Profile> {
      * @return The last name of the member.
      */
     public String getLname() {
-        return lname;
+        return NameDictionary.name(lname);
     }
 
     /**
@@ -58,7 +70,7 @@ public class Profile implements Comparable<Profile> {
      * @param lname The last name to set.
      */
     public void setLname(String lname) {
-        this.lname = lname;
+        this.lname = NameDictionary.intern(lname);
     }
 
     /**
@@ -86,11 +98,12 @@ public class Profile implements Comparable<Profile> {
      */
     @Override
     public String toString() {
-        return fname + ":" + lname + ":" + dob;
+        return getFname() + ":" + getLname() + ":" + dob;
     }
 
     /**
      * Indicates whether some other object is "equal to" this one.
+     * Names are compared ignoring case, consistent with compareTo.
      *
      * @param obj The object to compare for equality.
      * @return True if the objects are equal, false otherwise.
@@ -107,12 +120,26 @@ public class Profile implements Comparable<Profile> {
 
         Profile profile = (Profile) obj;
 
-        if (this.getFname().equals(profile.getFname()) && this.getLname().equals(profile.getLname())) {
+        if (NameDictionary.foldId(fname) == NameDictionary.foldId(profile.fname)
+                && NameDictionary.foldId(lname) == NameDictionary.foldId(profile.lname)) {
             return this.getDob().compareTo(profile.getDob()) == 0;
         }
         return false;
     }
 
+    /**
+     * Returns a hash code for this profile, consistent with equals and compareTo.
+     * Names are hashed on their fold IDs, so profiles that differ only in case collide.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        int hash = NameDictionary.foldId(lname);
+        hash = 31 * hash + NameDictionary.foldId(fname);
+        return 31 * hash + dob.hashCode();
+    }
+
     /**
      * Compares this profile with the specified profile for order.
      *
@@ -121,15 +148,13 @@ public class Profile implements Comparable<Profile> {
      */
     @Override
     public int compareTo(Profile profile) {
-        if (this.getLname().compareToIgnoreCase(profile.getLname()) == 0) {
-            if (this.getFname().compareToIgnoreCase(profile.getFname()) == 0) {
-                if (this.getDob().compareTo(profile.getDob()) == 0) {
-                    return 0;
-                }
-                return this.getDob().compareTo(profile.getDob());
-            }
-            return this.getFname().compareToIgnoreCase(profile.getFname());
+        int result = NameDictionary.compare(lname, profile.lname);
+        if (result == 0) {
+            result = NameDictionary.compare(fname, profile.fname);
+        }
+        if (result == 0) {
+            result = this.getDob().compareTo(profile.getDob());
         }
-        return this.getLname().compareToIgnoreCase(profile.getLname());
+        return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package fitness.studiomanager;
+
+import java.util.Arrays;
+
+/**
+ * Represents the attendees of a fitness class as a sorted array of member IDs assigned by a MemberList.
+ * Membership tests are binary searches, and set operations such as finding who attended two classes
+ * are linear merges. An empty roster holds no array at all.
+ *
+ * @author Woogyeom Sim
+ */
+public class Roster {
+    private static final int[] EMPTY = {};
+    private static final int INITIAL_CAPACITY = 4;
+    private int[] ids;
+    private int size;
+
+    /**
+     * Constructs an empty roster.
+     */
+    public Roster() {
+        ids = EMPTY;
+        size = 0;
+    }
+
+    /**
+     * Constructs a roster holding the first size IDs of an array that is already sorted and free of duplicates.
+     *
+     * @param ids The sorted IDs.
+     * @param size The number of IDs.
+     */
+    private Roster(int[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    /**
+     * Adds a member ID to the roster.
+     *
+     * @param id The member ID.
+     * @return True if the ID was added, false if it was already in the roster.
+     */
+    public boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Member is not registered in a member list");
+        }
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(INITIAL_CAPACITY, ids.length * 2));
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a member ID from the roster.
+     *
+     * @param id The member ID.
+     * @return True if the ID was removed, false if it was not in the roster.
+     */
+    public boolean remove(int id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Checks if the roster contains a member ID.
+     *
+     * @param id The member ID.
+     * @return True if the ID is in the roster, false otherwise.
+     */
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Gets the member ID at a position, in increasing order of IDs.
+     *
+     * @param i The position.
+     * @return The member ID.
+     */
+    public int getId(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return ids[i];
+    }
+
+    /**
+     * Gets the number of members in the roster.
+     *
+     * @return The size of the roster.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the roster is empty.
+     *
+     * @return True if the roster is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the member IDs in increasing order.
+     *
+     * @return A new array of the IDs.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Returns the members found in both this roster and another, e.g. who attended both classes.
+     *
+     * @param other The other roster.
+     * @return A new roster of the common IDs.
+     */
+    public Roster intersect(Roster other) {
+        int[] result = new int[Math.min(size, other.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (ids[i] < other.ids[j]) {
+                i++;
+            } else if (ids[i] > other.ids[j]) {
+                j++;
+            } else {
+                result[count++] = ids[i];
+                i++;
+                j++;
+            }
+        }
+        return new Roster(result, count);
+    }
+
+    /**
+     * Returns the members found in either this roster or another.
+     *
+     * @param other The other roster.
+     * @return A new roster of all IDs in either roster.
+     */
+    public Roster union(Roster other) {
+        int[] result = new int[size + other.size];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && ids[i] < other.ids[j])) {
+                result[count++] = ids[i++];
+            } else if (i == size || ids[i] > other.ids[j]) {
+                result[count++] = other.ids[j++];
+            } else {
+                result[count++] = ids[i];
+                i++;
+                j++;
+            }
+        }
+        return new Roster(result, count);
+    }
+}
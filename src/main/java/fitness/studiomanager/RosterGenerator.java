@@ -0,0 +1,579 @@
+package fitness.studiomanager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.StringTokenizer;
+
+/**
+ * Generates member files, class schedules and check-in command streams at production scale, for load tests,
+ * benchmarks and the command processor. The output depends only on the seed, the options and the reference date,
+ * so the same arguments always give the same files.
+ *
+ * Every attribute of member row i is computed from the seed and i alone, so rows can be written in any number
+ * without being kept in memory, and the check-in commands can refer to the members of a file without reading it.
+ * Profiles are drawn from common first and last names and birth dates from 1950 to 2005, and are distinct for the
+ * first 30M rows except for the rows deliberately written as duplicates of an earlier one.
+ * Files are written as ASCII bytes through a direct buffer to a FileChannel, so 10M rows take seconds.
+ *
+ * @author Woogyeom Sim
+ */
+public class RosterGenerator {
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+            "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Christopher", "Nancy", "Daniel", "Lisa", "Matthew", "Betty", "Anthony", "Margaret", "Mark", "Sandra",
+            "Donald", "Ashley", "Steven", "Kimberly", "Paul", "Emily", "Andrew", "Donna", "Joshua", "Michelle"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores"
+    };
+    private static final byte[][] FIRST_BYTES = ascii(FIRST_NAMES);
+    private static final byte[][] LAST_BYTES = ascii(LAST_NAMES);
+    private static final Offer[] OFFERS = Offer.values();
+    private static final Instructor[] INSTRUCTORS = Instructor.values();
+    private static final Time[] TIMES = Time.values();
+    private static final Location[] LOCATIONS = Location.values();
+    private static final byte[][] LOCATION_BYTES = ascii(LOCATIONS);
+    private static final byte[][] OFFER_BYTES = ascii(OFFERS);
+    private static final byte[][] INSTRUCTOR_BYTES = ascii(INSTRUCTORS);
+    private static final byte[][] TIME_BYTES = ascii(TIMES);
+    private static final byte[] TYPES = {'B', 'F', 'P'};
+    private static final String[] COMMANDS = {"R", "U", "RG", "UG"};
+    private static final byte[][] COMMAND_BYTES = ascii(COMMANDS);
+
+    private static final int BIRTH_YEARS = 56; // 1950 to 2005, so every member is at least 18
+    private static final int BIRTH_DAYS = BIRTH_YEARS * 12 * 28; // days 1 to 28 of every month, all valid
+    private static final long PROFILES = (long) FIRST_NAMES.length * LAST_NAMES.length * BIRTH_DAYS;
+    private static final long STRIDE = 1_000_003; // prime, so i * STRIDE mod PROFILES visits every profile once
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final long seed;
+    private double basicShare = 0.5;
+    private double familyShare = 0.25;
+    private double duplicateRate = 0.0;
+    private double expiredRate = 0.2;
+    private double[] studioWeights = cumulative(0.0);
+    private LocalDate today = LocalDate.now();
+
+    /**
+     * Constructs a generator with half Basic and a quarter each Family and Premium members, no duplicates,
+     * a fifth of memberships expired, studios chosen uniformly, and expiry dates around today.
+     *
+     * @param seed The seed.
+     */
+    public RosterGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the shares of Basic and Family members; the rest are Premium.
+     *
+     * @param basic The share of Basic members, from 0 to 1.
+     * @param family The share of Family members, from 0 to 1 - basic.
+     * @throws IllegalArgumentException If the shares are negative or add up to more than 1.
+     */
+    public void setMix(double basic, double family) {
+        if (basic < 0 || family < 0 || basic + family > 1) {
+            throw new IllegalArgumentException("Invalid membership mix: " + basic + " Basic, " + family + " Family");
+        }
+        basicShare = basic;
+        familyShare = family;
+    }
+
+    /**
+     * Sets the share of rows that repeat the profile of an earlier row, with their own type, expiry and studio.
+     * Loading the file keeps the first row of each profile.
+     *
+     * @param rate The share of duplicate rows, from 0 to 1.
+     * @throws IllegalArgumentException If the rate is not between 0 and 1.
+     */
+    public void setDuplicateRate(double rate) {
+        duplicateRate = share(rate, "duplicate rate");
+    }
+
+    /**
+     * Sets the share of memberships that expired within the last year; the others expire within the next two.
+     *
+     * @param rate The share of expired memberships, from 0 to 1.
+     * @throws IllegalArgumentException If the rate is not between 0 and 1.
+     */
+    public void setExpiredRate(double rate) {
+        expiredRate = share(rate, "expired rate");
+    }
+
+    /**
+     * Sets how unevenly home studios are chosen: the k-th location in Location order is chosen with a weight
+     * of 1 / k^skew, so 0 is uniform and 1 gives the first studio about twice the members of the second.
+     *
+     * @param skew The exponent of the weights, 0 or more.
+     * @throws IllegalArgumentException If the skew is negative.
+     */
+    public void setLocationSkew(double skew) {
+        if (skew < 0) {
+            throw new IllegalArgumentException("Invalid location skew: " + skew);
+        }
+        studioWeights = cumulative(skew);
+    }
+
+    /**
+     * Sets the date expiry dates are drawn around.
+     *
+     * @param today The reference date.
+     */
+    public void setToday(LocalDate today) {
+        this.today = today;
+    }
+
+    /**
+     * Builds the member of a row, as it is written to a member file.
+     *
+     * @param row The row.
+     * @return The member.
+     */
+    public Member member(long row) {
+        long profile = profileOf(row);
+        Profile person = new Profile(firstName(profile), lastName(profile), dob(profile));
+        LocalDate expiry = expire(row);
+        Date expire = new Date(expiry.getMonthValue(), expiry.getDayOfMonth(), expiry.getYear());
+        Location studio = studio(row);
+        return switch (type(row)) {
+            case 'B' -> new Basic(person, expire, studio);
+            case 'F' -> new Family(person, expire, studio);
+            default -> new Premium(person, expire, studio);
+        };
+    }
+
+    /**
+     * Writes a member file in the memberList.txt format: type, first and last name, date of birth, expiry date
+     * and home studio.
+     *
+     * @param file The file, replaced if it exists.
+     * @param rows The number of rows.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeMembers(Path file, long rows) throws IOException {
+        try (Output out = new Output(file)) {
+            for (long row = 0; row < rows; row++) {
+                long profile = profileOf(row);
+                out.put(type(row)).put(' ');
+                putProfile(out, profile);
+                out.put(' ');
+                LocalDate expire = expire(row);
+                out.putInt(expire.getMonthValue()).put('/').putInt(expire.getDayOfMonth()).put('/').putInt(expire.getYear());
+                out.put(' ').put(LOCATION_BYTES[studio(row).ordinal()]).put('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes a class schedule in the classSchedule.txt format with a class for every combination of
+     * class name, instructor, time and studio. Schedule.find returns the earliest of the classes of a
+     * class name, instructor and studio, which is the morning one.
+     *
+     * @param file The file, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeSchedule(Path file) throws IOException {
+        try (Output out = new Output(file)) {
+            for (Time time : TIMES) {
+                for (Offer offer : OFFERS) {
+                    for (Instructor instructor : INSTRUCTORS) {
+                        for (Location studio : LOCATIONS) {
+                            out.put(OFFER_BYTES[offer.ordinal()]).put(' ').put(INSTRUCTOR_BYTES[instructor.ordinal()]).put(' ')
+                                    .put(TIME_BYTES[time.ordinal()]).put(' ').put(LOCATION_BYTES[studio.ordinal()]).put('\n');
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a stream of commands for the CommandProcessor: loading a schedule and a member file, then
+     * check-ins and removals of attendance (R, U) and guests (RG, UG) by members of the file, mostly for a usual
+     * class of each member at their home studio, so removals find what was recorded, and finally Q.
+     *
+     * @param file The file, replaced if it exists.
+     * @param commands The number of check-in commands.
+     * @param memberFile The member file loaded by the commands, written by this generator with the same options.
+     * @param members The number of rows of the member file.
+     * @param scheduleFile The schedule file loaded by the commands.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeCommands(Path file, long commands, Path memberFile, long members, Path scheduleFile) throws IOException {
+        if (members <= 0) {
+            throw new IllegalArgumentException("The member file must have at least one row");
+        }
+        try (Output out = new Output(file)) {
+            out.put("LS " + scheduleFile + "\n").put("LM " + memberFile + "\n");
+            for (long i = 0; i < commands; i++) {
+                long hash = mix(seed ^ mix(~i));
+                long row = Long.remainderUnsigned(hash, members);
+                double kind = unit(mix(hash + 1));
+                int command = kind < 0.4 ? 0 : kind < 0.7 ? 1 : kind < 0.85 ? 2 : 3;
+                long pick = mix(hash + 2);
+                boolean usual = (pick & 7) < 6;
+                long choice = usual ? mix(seed + row * GOLDEN + 5) : pick;
+                Location studio = usual ? studio(row) : LOCATIONS[(int) Long.remainderUnsigned(pick >>> 3, LOCATIONS.length)];
+                out.put(COMMAND_BYTES[command]).put(' ')
+                        .put(OFFER_BYTES[(int) Long.remainderUnsigned(choice >>> 16, OFFERS.length)]).put(' ')
+                        .put(INSTRUCTOR_BYTES[(int) Long.remainderUnsigned(choice >>> 32, INSTRUCTORS.length)]).put(' ')
+                        .put(LOCATION_BYTES[studio.ordinal()]).put(' ');
+                putProfile(out, profileOf(row));
+                out.put('\n');
+            }
+            out.put("Q\n");
+        }
+    }
+
+    /**
+     * Writes the first and last name and the date of birth of a profile.
+     *
+     * @param out The output.
+     * @param profile The profile number.
+     * @throws IOException If the output cannot be written.
+     */
+    private static void putProfile(Output out, long profile) throws IOException {
+        long combination = profile % PROFILES;
+        out.put(FIRST_BYTES[(int) (combination % FIRST_NAMES.length)]).put(' ')
+                .put(LAST_BYTES[(int) (combination / FIRST_NAMES.length % LAST_NAMES.length)]);
+        if (profile >= PROFILES) {
+            out.putInt((int) (profile / PROFILES));
+        } // past 30M rows, a number after the last name keeps profiles distinct
+        int day = (int) (combination / ((long) FIRST_NAMES.length * LAST_NAMES.length));
+        out.put(' ').putInt(day / 28 % 12 + 1).put('/').putInt(day % 28 + 1).put('/').putInt(1950 + day / (12 * 28));
+    }
+
+    /**
+     * Returns the profile number of a row: an earlier row's for a duplicate, and otherwise a number
+     * distinct from every other row's.
+     *
+     * @param row The row.
+     * @return The profile number.
+     */
+    private long profileOf(long row) {
+        while (row > 0 && unit(mix(seed + row * GOLDEN + 3)) < duplicateRate) {
+            row = Long.remainderUnsigned(mix(seed + row * GOLDEN + 4), row);
+        } // a duplicate copies an earlier row, which may itself be a duplicate
+        long offset = Long.remainderUnsigned(mix(seed), PROFILES);
+        return (row % PROFILES * STRIDE + offset) % PROFILES + row / PROFILES * PROFILES;
+    }
+
+    /**
+     * Returns the first name of a profile.
+     *
+     * @param profile The profile number.
+     * @return The first name.
+     */
+    private static String firstName(long profile) {
+        return FIRST_NAMES[(int) (profile % PROFILES % FIRST_NAMES.length)];
+    }
+
+    /**
+     * Returns the last name of a profile.
+     *
+     * @param profile The profile number.
+     * @return The last name.
+     */
+    private static String lastName(long profile) {
+        String name = LAST_NAMES[(int) (profile % PROFILES / FIRST_NAMES.length % LAST_NAMES.length)];
+        return profile >= PROFILES ? name + profile / PROFILES : name;
+    }
+
+    /**
+     * Returns the date of birth of a profile.
+     *
+     * @param profile The profile number.
+     * @return The date of birth.
+     */
+    private static Date dob(long profile) {
+        int day = (int) (profile % PROFILES / ((long) FIRST_NAMES.length * LAST_NAMES.length));
+        return new Date(day / 28 % 12 + 1, day % 28 + 1, 1950 + day / (12 * 28));
+    }
+
+    /**
+     * Returns the membership type of a row.
+     *
+     * @param row The row.
+     * @return B, F or P.
+     */
+    private byte type(long row) {
+        double draw = unit(mix(seed + row * GOLDEN));
+        return draw < basicShare ? TYPES[0] : draw < basicShare + familyShare ? TYPES[1] : TYPES[2];
+    }
+
+    /**
+     * Returns the expiry date of a row.
+     *
+     * @param row The row.
+     * @return The expiry date.
+     */
+    private LocalDate expire(long row) {
+        long hash = mix(seed + row * GOLDEN + 1);
+        int days = (int) Long.remainderUnsigned(hash, 365) + 1;
+        return unit(mix(hash)) < expiredRate ? today.minusDays(days) : today.plusDays(days * 2L);
+    }
+
+    /**
+     * Returns the home studio of a row.
+     *
+     * @param row The row.
+     * @return The home studio.
+     */
+    private Location studio(long row) {
+        double draw = unit(mix(seed + row * GOLDEN + 2));
+        int k = 0;
+        while (k < LOCATIONS.length - 1 && draw >= studioWeights[k]) {
+            k++;
+        }
+        return LOCATIONS[k];
+    }
+
+    /**
+     * Returns the cumulative weights of the locations for a skew, normalized to end at 1.
+     *
+     * @param skew The exponent of the weights.
+     * @return The cumulative weights.
+     */
+    private static double[] cumulative(double skew) {
+        double[] weights = new double[LOCATIONS.length];
+        double total = 0;
+        for (int k = 0; k < weights.length; k++) {
+            total += 1 / Math.pow(k + 1, skew);
+            weights[k] = total;
+        }
+        for (int k = 0; k < weights.length; k++) {
+            weights[k] /= total;
+        }
+        return weights;
+    }
+
+    /**
+     * Checks that a share is between 0 and 1.
+     *
+     * @param share The share.
+     * @param name The name of the option, for the error message.
+     * @return The share.
+     * @throws IllegalArgumentException If the share is not between 0 and 1.
+     */
+    private static double share(double share, String name) {
+        if (share < 0 || share > 1) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + share);
+        }
+        return share;
+    }
+
+    /**
+     * Scrambles a number, so consecutive inputs give unrelated outputs (the SplitMix64 finalizer).
+     *
+     * @param z The number.
+     * @return The scrambled number.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Turns a scrambled number into a double uniformly distributed from 0 inclusive to 1 exclusive.
+     *
+     * @param hash The scrambled number.
+     * @return The double.
+     */
+    private static double unit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Encodes the names or enum constants of an array as ASCII bytes.
+     *
+     * @param values The values.
+     * @return The encoded values.
+     */
+    private static byte[][] ascii(Object[] values) {
+        byte[][] bytes = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = String.valueOf(values[i] instanceof Enum<?> constant ? constant.name() : values[i]).getBytes(StandardCharsets.US_ASCII);
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes ASCII bytes to a file through a direct buffer, draining it to the channel when full.
+     */
+    private static class Output implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final byte[] digits = new byte[10];
+
+        /**
+         * Opens a file for writing, replacing it if it exists.
+         *
+         * @param file The file.
+         * @throws IOException If the file cannot be opened.
+         */
+        Output(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Writes one byte.
+         *
+         * @param b The byte, an ASCII character.
+         * @return This output.
+         * @throws IOException If the file cannot be written.
+         */
+        Output put(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) b);
+            return this;
+        }
+
+        /**
+         * Writes bytes.
+         *
+         * @param bytes The bytes.
+         * @return This output.
+         * @throws IOException If the file cannot be written.
+         */
+        Output put(byte[] bytes) throws IOException {
+            if (buffer.remaining() < bytes.length) {
+                drain();
+            }
+            buffer.put(bytes);
+            return this;
+        }
+
+        /**
+         * Writes a string of ASCII characters.
+         *
+         * @param str The string.
+         * @return This output.
+         * @throws IOException If the file cannot be written.
+         */
+        Output put(String str) throws IOException {
+            return put(str.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        /**
+         * Writes a non-negative int in decimal without allocating.
+         *
+         * @param value The int.
+         * @return This output.
+         * @throws IOException If the file cannot be written.
+         */
+        Output putInt(int value) throws IOException {
+            int n = digits.length;
+            do {
+                digits[--n] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            if (buffer.remaining() < digits.length - n) {
+                drain();
+            }
+            buffer.put(digits, n, digits.length - n);
+            return this;
+        }
+
+        /**
+         * Writes the buffered bytes to the channel.
+         *
+         * @throws IOException If the file cannot be written.
+         */
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Writes the remaining bytes and closes the file.
+         *
+         * @throws IOException If the file cannot be written or closed.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Writes members.txt, schedule.txt and commands.txt to a directory. Options:
+     * --members N (default 100000), --commands N (default 100000), --seed N (default 213),
+     * --basic F --family F (default 0.5 and 0.25), --duplicates F (default 0), --expired F (default 0.2),
+     * --skew F (default 0), --today M/D/YYYY (default today).
+     *
+     * @param args The directory, then the options.
+     * @throws IOException If a file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: RosterGenerator <directory> [--members N] [--commands N] [--seed N] [--basic F] [--family F]"
+                    + " [--duplicates F] [--expired F] [--skew F] [--today M/D/YYYY]");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        long members = 100_000;
+        long commands = 100_000;
+        long seed = 213;
+        double basic = 0.5;
+        double family = 0.25;
+        double duplicates = 0;
+        double expired = 0.2;
+        double skew = 0;
+        LocalDate today = LocalDate.now();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--members" -> members = Long.parseLong(value);
+                case "--commands" -> commands = Long.parseLong(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--basic" -> basic = Double.parseDouble(value);
+                case "--family" -> family = Double.parseDouble(value);
+                case "--duplicates" -> duplicates = Double.parseDouble(value);
+                case "--expired" -> expired = Double.parseDouble(value);
+                case "--skew" -> skew = Double.parseDouble(value);
+                case "--today" -> {
+                    StringTokenizer fields = new StringTokenizer(value, "/");
+                    int month = Integer.parseInt(fields.nextToken());
+                    int day = Integer.parseInt(fields.nextToken());
+                    today = LocalDate.of(Integer.parseInt(fields.nextToken()), month, day);
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        RosterGenerator generator = new RosterGenerator(seed);
+        generator.setMix(basic, family);
+        generator.setDuplicateRate(duplicates);
+        generator.setExpiredRate(expired);
+        generator.setLocationSkew(skew);
+        generator.setToday(today);
+        Files.createDirectories(directory);
+        Path memberFile = directory.resolve("members.txt");
+        Path scheduleFile = directory.resolve("schedule.txt");
+        long start = System.nanoTime();
+        generator.writeMembers(memberFile, members);
+        generator.writeSchedule(scheduleFile);
+        generator.writeCommands(directory.resolve("commands.txt"), commands, memberFile, members, scheduleFile);
+        System.err.printf("%d members and %d commands in %.1f ms%n", members, commands, (System.nanoTime() - start) / 1e6);
+    }
+}
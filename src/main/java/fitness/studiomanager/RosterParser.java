@@ -0,0 +1,442 @@
+package fitness.studiomanager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses member rosters and class schedules line by line, directly from bytes.
+ * Tokens are located by scanning for blanks, so no regex, Scanner or substring is involved;
+ * the membership type, dates and enum tokens are decoded in place and only names become strings.
+ * Reads through a reusable buffer refilled from a channel, or parses a buffer supplied up front,
+ * such as a memory-mapped region of the file. Names are served from a small fixed-size cache keyed
+ * by their bytes that holds their NameDictionary codes, so repeated names neither create a new string
+ * per line nor go through the dictionary again.
+ *
+ * @author Woogyeom Sim
+ */
+public class RosterParser {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MEMBER_TOKENS = 6;
+    private static final int CLASS_TOKENS = 4;
+    private static final int NAME_CACHE_SIZE = 4096; // must be a power of two
+    private static final Offer[] OFFERS = Offer.values();
+    private static final Instructor[] INSTRUCTORS = Instructor.values();
+    private static final Time[] TIMES = Time.values();
+    private static final Location[] LOCATIONS = Location.values();
+
+    private final ReadableByteChannel channel;
+    private final byte[][] cachedBytes = new byte[NAME_CACHE_SIZE][];
+    private final int[] cachedCodes = new int[NAME_CACHE_SIZE];
+    private ByteBuffer buffer;
+    private boolean eof;
+    private int next;
+    private int lineEnd;
+    private int pos;
+    private long consumed; // input bytes before index 0 of the buffer
+    private byte[] scratch = new byte[32];
+
+    /**
+     * Constructs a parser that streams from a channel through a reusable buffer.
+     *
+     * @param channel The channel to read from.
+     */
+    public RosterParser(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.limit(0);
+        this.eof = false;
+    }
+
+    /**
+     * Constructs a parser over the remaining bytes of a buffer, which is parsed in place.
+     *
+     * @param buffer The buffer holding whole lines between its position and limit.
+     */
+    public RosterParser(ByteBuffer buffer) {
+        this.channel = null;
+        point(buffer);
+    }
+
+    /**
+     * Points a parser constructed over a buffer at another buffer, keeping its name cache.
+     *
+     * @param buffer The buffer holding whole lines between its position and limit.
+     */
+    public void reset(ByteBuffer buffer) {
+        if (channel != null) {
+            throw new IllegalStateException("Parser streams from a channel");
+        }
+        point(buffer);
+    }
+
+    /**
+     * Moves the cursor to the start of a buffer that is parsed in place.
+     *
+     * @param buffer The buffer holding whole lines between its position and limit.
+     */
+    private void point(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.consumed = -buffer.position();
+        this.next = buffer.position();
+        this.lineEnd = next;
+        this.pos = next;
+        this.eof = true;
+    }
+
+    /**
+     * Maps a file into memory as read-only regions of about the given size, each cut at a newline
+     * so that every region holds whole lines. Regions are meant to be parsed in place.
+     *
+     * @param channel The channel of the file to map.
+     * @param chunkSize The target size of each region in bytes, at most Integer.MAX_VALUE.
+     * @return The mapped regions in file order.
+     * @throws IOException If mapping fails or a line is longer than a region.
+     */
+    public static List<ByteBuffer> mapLines(FileChannel channel, long chunkSize) throws IOException {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        long fileSize = channel.size();
+        long start = 0;
+        while (start < fileSize) {
+            long length = Math.min(chunkSize, fileSize - start);
+            ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            int end = (int) length;
+            if (start + length < fileSize) {
+                while (end > 0 && chunk.get(end - 1) != '\n') {
+                    end--;
+                }
+                if (end == 0) {
+                    throw new IOException("Line at offset " + start + " is longer than " + chunkSize + " bytes");
+                }
+            } // cut at the last newline unless this is the end of the file
+            chunks.add(chunk.limit(end));
+            start += end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Advances to the next line that is not blank.
+     *
+     * @return True if a line is available, false at the end of input.
+     * @throws IOException If reading from the channel fails.
+     */
+    public boolean nextLine() throws IOException {
+        while (true) {
+            int scan = next;
+            int newline = -1;
+            while (newline < 0) {
+                int limit = buffer.limit();
+                for (int i = scan; i < limit; i++) {
+                    if (buffer.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline < 0) {
+                    if (eof) {
+                        break;
+                    }
+                    scan = limit - next;
+                    fill();
+                    scan = next + scan;
+                }
+            }
+            if (newline < 0 && next == buffer.limit()) {
+                return false;
+            } // no more input
+
+            pos = next;
+            lineEnd = newline < 0 ? buffer.limit() : newline;
+            next = newline < 0 ? lineEnd : newline + 1;
+            if (lineEnd > pos && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            skipBlanks();
+            if (pos < lineEnd) {
+                return true;
+            } // skip blank lines
+        }
+    }
+
+    /**
+     * Returns the number of input bytes consumed so far, up to the end of the current line,
+     * e.g. to report the progress of a load against the size of the file.
+     *
+     * @return The number of bytes consumed from the channel or from the current buffer.
+     */
+    public long getBytesParsed() {
+        return consumed + next;
+    }
+
+    /**
+     * Moves the unread bytes to the front of the buffer and reads more from the channel,
+     * doubling the buffer when a single line does not fit.
+     *
+     * @throws IOException If reading from the channel fails.
+     */
+    private void fill() throws IOException {
+        consumed += next;
+        buffer.position(next);
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        if (channel.read(buffer) < 0) {
+            eof = true;
+        }
+        buffer.flip();
+        next = 0;
+    }
+
+    /**
+     * Parses the current line as a member, in the format "B John Doe 1/20/2004 3/22/2024 BRIDGEWATER".
+     *
+     * @return A Basic, Family or Premium member.
+     * @throws IOException If the line has the wrong number of tokens or an unknown membership type.
+     * @throws IllegalArgumentException If a date or the location is invalid.
+     */
+    public Member parseMember() throws IOException {
+        int tokens = countTokens();
+        if (tokens != MEMBER_TOKENS) {
+            throw new IOException("Expected 6 tokens, but found " + tokens);
+        }
+        int start = pos;
+        int end = tokenEnd();
+        int type = end - start == 1 ? Character.toUpperCase(buffer.get(start)) : 0;
+        if (type != 'B' && type != 'F' && type != 'P') {
+            throw new IOException("Invalid membership type. Expected B, F or P but got: " + text(start, end));
+        }
+        int fname = name();
+        int lname = name();
+        Date birthDate = date();
+        Date expirationDate = date();
+        Location location = token(LOCATIONS);
+        if (location == null) {
+            throw new IllegalArgumentException(text(pos, tokenEnd()) + ": Invalid studio location!");
+        }
+        pos = lineEnd;
+
+        Profile profile = new Profile(fname, lname, birthDate);
+        return switch (type) {
+            case 'B' -> new Basic(profile, expirationDate, location);
+            case 'F' -> new Family(profile, expirationDate, location);
+            default -> new Premium(profile, expirationDate, location);
+        };
+    }
+
+    /**
+     * Parses the current line as a fitness class, in the format "PILATES JENNIFER MORNING BRIDGEWATER".
+     *
+     * @return The fitness class.
+     * @throws IOException If the line has too few tokens.
+     * @throws IllegalArgumentException If an offer, instructor, time or location is invalid.
+     */
+    public FitnessClass parseClass() throws IOException {
+        int tokens = countTokens();
+        if (tokens < CLASS_TOKENS) {
+            throw new IOException("Expected 4 tokens, but found " + tokens);
+        }
+        Offer offer = required(OFFERS, "class name");
+        Instructor instructor = required(INSTRUCTORS, "instructor");
+        Time time = required(TIMES, "time");
+        Location studio = required(LOCATIONS, "studio location");
+        pos = lineEnd;
+        return new FitnessClass(offer, instructor, studio, time);
+    }
+
+    /**
+     * Counts the tokens on the current line without consuming them.
+     *
+     * @return The number of blank-separated tokens.
+     */
+    private int countTokens() {
+        int count = 0;
+        int i = pos;
+        while (i < lineEnd) {
+            count++;
+            while (i < lineEnd && !isBlank(buffer.get(i))) {
+                i++;
+            }
+            while (i < lineEnd && isBlank(buffer.get(i))) {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Consumes the token at the cursor and returns its end, leaving the cursor on the next token.
+     *
+     * @return The index just past the token.
+     */
+    private int tokenEnd() {
+        int end = pos;
+        while (end < lineEnd && !isBlank(buffer.get(end))) {
+            end++;
+        }
+        pos = end;
+        skipBlanks();
+        return end;
+    }
+
+    /**
+     * Advances the cursor past spaces and tabs.
+     */
+    private void skipBlanks() {
+        while (pos < lineEnd && isBlank(buffer.get(pos))) {
+            pos++;
+        }
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * Consumes a name token, reusing the cached code when the same bytes were seen recently.
+     *
+     * @return The NameDictionary code of the name decoded as UTF-8.
+     */
+    private int name() {
+        int start = pos;
+        int end = tokenEnd();
+        int length = end - start;
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+        byte[] key = cachedBytes[slot];
+        if (key != null && key.length == length && matches(start, key)) {
+            return cachedCodes[slot];
+        }
+        key = new byte[length];
+        buffer.get(start, key);
+        int code = NameDictionary.intern(new String(key, StandardCharsets.UTF_8));
+        cachedBytes[slot] = key;
+        cachedCodes[slot] = code;
+        return code;
+    }
+
+    /**
+     * Checks whether the buffer holds the given bytes starting at an index.
+     *
+     * @param start The first index in the buffer.
+     * @param key The bytes to compare against.
+     * @return True if every byte matches.
+     */
+    private boolean matches(int start, byte[] key) {
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a range of the buffer as UTF-8.
+     *
+     * @param start The first index.
+     * @param end The index just past the last byte.
+     * @return The decoded text.
+     */
+    private String text(int start, int end) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Consumes a date token in M/D/YYYY format.
+     *
+     * @return The date, which is not checked for calendar validity.
+     * @throws IllegalArgumentException If the token is not three slash-separated numbers.
+     */
+    private Date date() {
+        int start = pos;
+        int end = tokenEnd();
+        int month = 0;
+        int day = 0;
+        int year = 0;
+        int field = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '/' && field < 2 && digits > 0) {
+                field++;
+                digits = 0;
+            } else if (b >= '0' && b <= '9' && digits < 9) {
+                int digit = b - '0';
+                switch (field) {
+                    case 0 -> month = month * 10 + digit;
+                    case 1 -> day = day * 10 + digit;
+                    default -> year = year * 10 + digit;
+                }
+                digits++;
+            } else {
+                throw new IllegalArgumentException(text(start, end) + ": invalid date!");
+            }
+        }
+        if (field != 2 || digits == 0) {
+            throw new IllegalArgumentException(text(start, end) + ": invalid date!");
+        }
+        return new Date(month, day, year);
+    }
+
+    /**
+     * Consumes a token that must name one of the given constants.
+     *
+     * @param values The constants of the enum.
+     * @param what A description of the token for the error message.
+     * @return The matching constant.
+     * @throws IllegalArgumentException If no constant matches.
+     */
+    private <E extends Enum<E>> E required(E[] values, String what) {
+        E value = token(values);
+        if (value == null) {
+            throw new IllegalArgumentException(text(pos, tokenEnd()) + " - invalid " + what + ".");
+        }
+        return value;
+    }
+
+    /**
+     * Matches the token at the cursor against enum constant names, ignoring case.
+     * The cursor is advanced only when a constant matches.
+     *
+     * @param values The constants of the enum.
+     * @return The matching constant, or null if none matches.
+     */
+    private <E extends Enum<E>> E token(E[] values) {
+        int end = pos;
+        while (end < lineEnd && !isBlank(buffer.get(end))) {
+            end++;
+        }
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() != end - pos) {
+                continue;
+            }
+            int i = 0;
+            while (i < name.length() && Character.toUpperCase(buffer.get(pos + i)) == name.charAt(i)) {
+                i++;
+            }
+            if (i == name.length()) {
+                tokenEnd();
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -2,20 +2,68 @@ package fitness.studiomanager;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Scanner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.LongConsumer;
 
 /**
  * Represents a schedule of fitness classes.
  * Allows loading classes from a file, storing them, and providing methods to access and manipulate the schedule.
- * It employs a dynamic array to store the classes, which grows as needed to accommodate new additions.
+ * It employs a dynamic array to store the classes, which doubles in capacity as needed to accommodate new additions.
+ * Classes are also indexed by their (offer, instructor, studio) triple in a dense array addressed by the
+ * enum ordinals, and by time and by studio, so lookups neither scan the schedule nor allocate.
+ * The indexes are built when a class is added, so a class must not be changed after that.
  *
  * @author Aravind Chendu, Woogyeom Sim
  */
 public class Schedule {
     private static final int INITIAL_CAPACITY = 4;
-    private static final int GROWTH = 4;
-    private FitnessClass[] classes = new FitnessClass[4];
+    private static final long MAP_CHUNK_SIZE = 64L << 20; // bytes mapped at a time by loadMapped
+    private static final int PROGRESS_INTERVAL = 1 << 12; // lines parsed between progress reports
+    private static final int NUM_INSTRUCTORS = Instructor.values().length;
+    private static final int NUM_LOCATIONS = Location.values().length;
+    private FitnessClass[] classes;
     private int numClasses;
+    private final FitnessClass[] byKey = new FitnessClass[Offer.values().length * NUM_INSTRUCTORS * NUM_LOCATIONS];
+    private final EnumMap<Time, List<FitnessClass>> byTime = new EnumMap<>(Time.class);
+    private final EnumMap<Location, List<FitnessClass>> byStudio = new EnumMap<>(Location.class);
+
+    /**
+     * Constructs an empty schedule with an initial capacity.
+     */
+    public Schedule() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty schedule presized to hold the given number of classes without growing.
+     *
+     * @param capacity The number of classes to reserve room for.
+     */
+    public Schedule(int capacity) {
+        classes = new FitnessClass[Math.max(capacity, INITIAL_CAPACITY)];
+        numClasses = 0;
+    }
+
+    /**
+     * Constructs a copy of a schedule that holds the same fitness classes, so classes added to
+     * the copy, e.g. by a load running in the background, do not show in the original.
+     *
+     * @param other The schedule to copy.
+     */
+    public Schedule(Schedule other) {
+        classes = Arrays.copyOf(other.classes, other.classes.length);
+        numClasses = other.numClasses;
+        System.arraycopy(other.byKey, 0, byKey, 0, byKey.length);
+        other.byTime.forEach((time, lessons) -> byTime.put(time, new ArrayList<>(lessons)));
+        other.byStudio.forEach((studio, lessons) -> byStudio.put(studio, new ArrayList<>(lessons)));
+    }
 
     /**
      * Loads fitness classes from a file and adds them to the schedule.
@@ -24,35 +72,60 @@ public class Schedule {
      * @throws IOException If an I/O error occurs while reading the file.
      */
     public void load(File file) throws IOException {
-        Scanner scanner = new Scanner(file);
-        while (scanner.hasNextLine()) {
-            String data = scanner.nextLine();
-            if (data.trim().isEmpty()) {
-                continue;
+        load(file, null);
+    }
+
+    /**
+     * Loads fitness classes from a file and adds them to the schedule, reporting the number of bytes parsed as it goes.
+     * Interrupting the loading thread stops the load with a ClosedByInterruptException.
+     *
+     * @param file The file containing fitness class information.
+     * @param progress Receives the number of bytes parsed so far, or null.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public void load(File file, LongConsumer progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            RosterParser parser = new RosterParser(channel);
+            int lines = 0;
+            while (parser.nextLine()) {
+                add(parser.parseClass());
+                if (progress != null && ++lines % PROGRESS_INTERVAL == 0) {
+                    progress.accept(parser.getBytesParsed());
+                }
+            }
+            if (progress != null) {
+                progress.accept(parser.getBytesParsed());
             }
-            String[] tokens = data.split(" +");
-            Offer offer;
-            offer = Offer.valueOf(tokens[0].toUpperCase());
-            Instructor instructor;
-            instructor = Instructor.valueOf(tokens[1].toUpperCase());
-            Time time;
-            time = Time.valueOf(tokens[2].toUpperCase());
-            Location homeStudio;
-            homeStudio = Location.valueOf(tokens[3].toUpperCase());
-            FitnessClass lesson = new FitnessClass(offer, instructor, homeStudio, time);
-            add(lesson);
         }
     }
 
     /**
-     * Increases the capacity of the schedule's class array.
+     * Loads fitness classes from a file by memory-mapping it and parsing the mapped bytes in place.
+     *
+     * @param file The file containing fitness class information.
+     * @throws IOException If an I/O error occurs while reading the file.
      */
-    private void grow() {
-        FitnessClass[] newClasses = new FitnessClass[classes.length + GROWTH];
-        for (int i = 0; i < numClasses; i++) {
-            newClasses[i] = classes[i];
+    public void loadMapped(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            RosterParser parser = null;
+            for (ByteBuffer chunk : RosterParser.mapLines(channel, MAP_CHUNK_SIZE)) {
+                if (parser == null) {
+                    parser = new RosterParser(chunk);
+                } else {
+                    parser.reset(chunk);
+                }
+                while (parser.nextLine()) {
+                    add(parser.parseClass());
+                }
+            }
         }
-        classes = newClasses;
+    }
+
+    /**
+     * Doubles the capacity of the schedule's class array, so appends are amortized constant time.
+     */
+    private void grow() {
+        classes = Arrays.copyOf(classes, classes.length * 2);
     }
 
     /**
@@ -60,13 +133,32 @@ public class Schedule {
      *
      * @param lesson The fitness class to add.
      */
-    private void add(FitnessClass lesson) {
+    void add(FitnessClass lesson) {
         if (numClasses == classes.length) {
             grow();
         }
 
         classes[numClasses] = lesson;
         numClasses++;
+
+        int key = key(lesson.getClassInfo(), lesson.getInstructor(), lesson.getStudio());
+        if (byKey[key] == null) {
+            byKey[key] = lesson;
+        } // find returns the first class added for a triple
+        byTime.computeIfAbsent(lesson.getTime(), time -> new ArrayList<>()).add(lesson);
+        byStudio.computeIfAbsent(lesson.getStudio(), studio -> new ArrayList<>()).add(lesson);
+    }
+
+    /**
+     * Computes the position of an (offer, instructor, studio) triple in the dense index.
+     *
+     * @param classInfo The class information.
+     * @param instructor The instructor.
+     * @param studio The studio location.
+     * @return The position in byKey.
+     */
+    private static int key(Offer classInfo, Instructor instructor, Location studio) {
+        return (classInfo.ordinal() * NUM_INSTRUCTORS + instructor.ordinal()) * NUM_LOCATIONS + studio.ordinal();
     }
 
     /**
@@ -96,12 +188,41 @@ public class Schedule {
      * @return The fitness class if found, null otherwise.
      */
     public FitnessClass find(Offer classInfo, Instructor instructor, Location studio) {
-        FitnessClass fitnessClass = new FitnessClass(classInfo, instructor, studio, null);
-        for (int i = 0; i < numClasses; i++) {
-            if (classes[i].equals(fitnessClass)) {
-                return classes[i];
-            }
+        if (classInfo == null || instructor == null || studio == null) {
+            return null;
         }
-        return null;
+        return byKey[key(classInfo, instructor, studio)];
+    }
+
+    /**
+     * Checks whether a member already attends a class held at the given time.
+     * Attendance is tracked per member by FitnessClass.addMember and removeMember, so this is one bit test.
+     *
+     * @param member The member, as stored in the member list.
+     * @param time The time of the class the member wants to attend.
+     * @return True if the member is in another class at that time, false otherwise.
+     */
+    public boolean hasTimeConflict(Member member, Time time) {
+        return member.isBooked(time);
+    }
+
+    /**
+     * Finds the fitness classes held at a time, in the order they were added.
+     *
+     * @param time The time.
+     * @return An unmodifiable list of the classes, empty if there are none.
+     */
+    public List<FitnessClass> findByTime(Time time) {
+        return Collections.unmodifiableList(byTime.getOrDefault(time, List.of()));
+    }
+
+    /**
+     * Finds the fitness classes held at a studio, in the order they were added.
+     *
+     * @param studio The studio location.
+     * @return An unmodifiable list of the classes, empty if there are none.
+     */
+    public List<FitnessClass> findByStudio(Location studio) {
+        return Collections.unmodifiableList(byStudio.getOrDefault(studio, List.of()));
     }
 }
@@ -0,0 +1,390 @@
+package fitness.studiomanager;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Represents the full in-memory state of the studio manager, a member list and a schedule together
+ * with class attendance and guest-pass usage, and saves or restores it as a compact binary file.
+ * Names are written once to a string table and referenced by index, dates are packed into an int,
+ * and enums are stored as ordinals. Members are saved with their IDs, which class rosters refer to,
+ * so a restored member list hands out the same IDs as the one saved. A snapshot also records the
+ * sequence number of the last attendance log record it includes, so that replaying the log on top of it
+ * skips what the snapshot already holds. Files are written to a temporary file first and moved into place,
+ * so a crash never leaves a partial snapshot behind.
+ *
+ * @author Woogyeom Sim
+ */
+public class Snapshot {
+    private static final int MAGIC = 0x52554643; // "RUFC"
+    private static final int VERSION = 3;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final Offer[] OFFERS = Offer.values();
+    private static final Instructor[] INSTRUCTORS = Instructor.values();
+    private static final Time[] TIMES = Time.values();
+    private static final Location[] LOCATIONS = Location.values();
+
+    private final MemberList memberList;
+    private final Schedule schedule;
+    private final long sequence;
+
+    /**
+     * Constructs a snapshot of a member list and a schedule.
+     *
+     * @param memberList The member list.
+     * @param schedule The schedule.
+     */
+    public Snapshot(MemberList memberList, Schedule schedule) {
+        this(memberList, schedule, 0);
+    }
+
+    /**
+     * Constructs a snapshot of a member list and a schedule that includes the attendance log up to a record.
+     *
+     * @param memberList The member list.
+     * @param schedule The schedule.
+     * @param sequence The sequence number of the last log record included, or 0 if none.
+     */
+    public Snapshot(MemberList memberList, Schedule schedule, long sequence) {
+        this.memberList = memberList;
+        this.schedule = schedule;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns the member list of the snapshot.
+     *
+     * @return The member list.
+     */
+    public MemberList getMemberList() {
+        return memberList;
+    }
+
+    /**
+     * Returns the schedule of the snapshot.
+     *
+     * @return The schedule.
+     */
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Returns the sequence number of the last attendance log record included in the snapshot.
+     *
+     * @return The sequence number, or 0 if none.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Saves the snapshot to a file, replacing it atomically.
+     *
+     * @param path The file to save to.
+     * @throws IOException If an I/O error occurs, or a class roster holds a member not in the member list.
+     */
+    public void save(Path path) throws IOException {
+        List<String> strings = new ArrayList<>();
+        HashMap<String, Integer> stringIds = new HashMap<>();
+        int[] nameIds = new int[memberList.getSize() * 2];
+        for (int i = 0; i < memberList.getSize(); i++) {
+            Profile profile = memberList.getMember(i).getProfile();
+            nameIds[2 * i] = intern(profile.getFname(), strings, stringIds);
+            nameIds[2 * i + 1] = intern(profile.getLname(), strings, stringIds);
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.ensure(16).putInt(MAGIC).putInt(VERSION).putLong(sequence);
+
+            out.ensure(4).putInt(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+            }
+
+            out.ensure(8).putInt(memberList.getSize()).putInt(memberList.getNextId());
+            for (int i = 0; i < memberList.getSize(); i++) {
+                Member member = memberList.getMember(i);
+                out.ensure(26)
+                        .putInt(member.getId())
+                        .put(typeOf(member))
+                        .putInt(nameIds[2 * i])
+                        .putInt(nameIds[2 * i + 1])
+                        .putInt(member.getProfile().getDob().pack())
+                        .putInt(member.getExpire().pack())
+                        .put((byte) member.getHomeStudio().ordinal())
+                        .putInt(stateOf(member));
+            }
+
+            out.ensure(4).putInt(schedule.getNumClasses());
+            for (int i = 0; i < schedule.getNumClasses(); i++) {
+                FitnessClass fitnessClass = schedule.getClasses()[i];
+                out.ensure(4)
+                        .put((byte) fitnessClass.getClassInfo().ordinal())
+                        .put((byte) fitnessClass.getInstructor().ordinal())
+                        .put((byte) fitnessClass.getStudio().ordinal())
+                        .put((byte) fitnessClass.getTime().ordinal());
+                writeRoster(out, fitnessClass.getMembers());
+                writeRoster(out, fitnessClass.getGuests());
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores a snapshot from a file.
+     *
+     * @param path The file to restore from.
+     * @return The restored snapshot.
+     * @throws IOException If an I/O error occurs or the file is not a snapshot of the current version.
+     */
+    public static Snapshot restore(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            if (in.ensure(8).getInt() != MAGIC) {
+                throw new IOException(path + " is not a studio manager snapshot");
+            }
+            int version = in.buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            long sequence = in.ensure(8).getLong();
+
+            String[] strings = new String[in.ensure(4).getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.ensure(4).getInt()];
+                in.ensure(bytes.length).get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int numMembers = in.ensure(4).getInt();
+            int nextId = in.ensure(4).getInt();
+            MemberList memberList = new MemberList(numMembers);
+            for (int i = 0; i < numMembers; i++) {
+                ByteBuffer buffer = in.ensure(26);
+                int id = buffer.getInt();
+                byte type = buffer.get();
+                Profile profile = new Profile(strings[buffer.getInt()], strings[buffer.getInt()], Date.unpack(buffer.getInt()));
+                Date expire = Date.unpack(buffer.getInt());
+                Location homeStudio = LOCATIONS[buffer.get()];
+                int state = buffer.getInt();
+                memberList.add(newMember(type, profile, expire, homeStudio, state), id);
+            }
+            memberList.reserveIds(nextId);
+
+            int numClasses = in.ensure(4).getInt();
+            Schedule schedule = new Schedule(numClasses);
+            for (int i = 0; i < numClasses; i++) {
+                ByteBuffer buffer = in.ensure(4);
+                Offer offer = OFFERS[buffer.get()];
+                Instructor instructor = INSTRUCTORS[buffer.get()];
+                Location studio = LOCATIONS[buffer.get()];
+                Time time = TIMES[buffer.get()];
+                FitnessClass fitnessClass = new FitnessClass(offer, instructor, studio, time);
+                int numAttendees = in.ensure(4).getInt();
+                for (int j = 0; j < numAttendees; j++) {
+                    fitnessClass.addMember(readMember(in, memberList));
+                }
+                int numGuests = in.ensure(4).getInt();
+                for (int j = 0; j < numGuests; j++) {
+                    fitnessClass.addGuest(readMember(in, memberList));
+                }
+                schedule.add(fitnessClass);
+            }
+            return new Snapshot(memberList, schedule, sequence);
+        }
+    }
+
+    /**
+     * Writes a class roster as a count followed by the IDs of its members.
+     *
+     * @param out The output.
+     * @param roster The class roster.
+     * @throws IOException If an I/O error occurs, or a roster member is not in the member list.
+     */
+    private void writeRoster(Output out, Roster roster) throws IOException {
+        out.ensure(4).putInt(roster.getSize());
+        for (int i = 0; i < roster.getSize(); i++) {
+            int id = roster.getId(i);
+            if (memberList.byId(id) == null) {
+                throw new IOException("Member #" + id + " is not in the member database.");
+            }
+            out.ensure(4).putInt(id);
+        }
+    }
+
+    /**
+     * Reads the ID of a roster member and returns the member holding it.
+     *
+     * @param in The input.
+     * @param memberList The restored member list.
+     * @return The member.
+     * @throws IOException If an I/O error occurs, or no member holds the ID.
+     */
+    private static Member readMember(Input in, MemberList memberList) throws IOException {
+        int id = in.ensure(4).getInt();
+        Member member = memberList.byId(id);
+        if (member == null) {
+            throw new IOException("Snapshot refers to unknown member #" + id);
+        }
+        return member;
+    }
+
+    /**
+     * Returns the string table index of a string, adding it to the table if it is new.
+     *
+     * @param string The string.
+     * @param strings The string table.
+     * @param stringIds The index of each string in the table.
+     * @return The index of the string.
+     */
+    private static int intern(String string, List<String> strings, HashMap<String, Integer> stringIds) {
+        Integer id = stringIds.putIfAbsent(string, strings.size());
+        if (id == null) {
+            strings.add(string);
+            return strings.size() - 1;
+        }
+        return id;
+    }
+
+    /**
+     * Creates a member of the given type and sets its mutable state.
+     *
+     * @param type The type code: B, F or P.
+     * @param profile The profile.
+     * @param expire The expiry date.
+     * @param homeStudio The home studio.
+     * @param state The state as returned by stateOf.
+     * @return The member.
+     * @throws IOException If the type code is unknown.
+     */
+    static Member newMember(byte type, Profile profile, Date expire, Location homeStudio, int state) throws IOException {
+        Member member = switch (type) {
+            case 'B' -> new Basic(profile, expire, homeStudio);
+            case 'F' -> new Family(profile, expire, homeStudio);
+            case 'P' -> new Premium(profile, expire, homeStudio);
+            default -> throw new IOException("Unknown membership type " + type);
+        };
+        setState(member, state);
+        return member;
+    }
+
+    /**
+     * Sets the mutable state of a member: classes attended, guest pass availability or guest passes left.
+     *
+     * @param member The member.
+     * @param state The state as returned by stateOf.
+     */
+    static void setState(Member member, int state) {
+        switch (member) {
+            case Basic basic -> basic.setNumClasses(state);
+            case Family family -> family.setGuest(state != 0);
+            case Premium premium -> premium.setGuestPass(state);
+            default -> {}
+        }
+    }
+
+    /**
+     * Returns the type code of a member: B, F or P.
+     *
+     * @param member The member.
+     * @return The type code.
+     */
+    static byte typeOf(Member member) {
+        return switch (member) {
+            case Basic basic -> 'B';
+            case Family family -> 'F';
+            case Premium premium -> 'P';
+            default -> throw new IllegalArgumentException(member.getProfile() + " has no membership type.");
+        };
+    }
+
+    /**
+     * Returns the mutable state of a member: classes attended, guest pass availability or guest passes left.
+     *
+     * @param member The member.
+     * @return The state as an int.
+     */
+    static int stateOf(Member member) {
+        return switch (member) {
+            case Basic basic -> basic.getNumClasses();
+            case Family family -> family.getGuest() ? 1 : 0;
+            case Premium premium -> premium.getGuestPass();
+            default -> 0;
+        };
+    }
+
+    /**
+     * Buffers writes to a channel, flushing whenever the buffer cannot hold the next record.
+     */
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+                if (buffer.remaining() < bytes) {
+                    throw new IOException("Record of " + bytes + " bytes is too large for a snapshot");
+                }
+            }
+            return buffer;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Buffers reads from a channel, refilling whenever the buffer does not hold the next record.
+     */
+    private static class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).limit(0);
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                if (bytes > buffer.capacity()) {
+                    throw new IOException("Record of " + bytes + " bytes is too large for a snapshot");
+                }
+                buffer.compact();
+                while (buffer.position() < bytes) {
+                    if (channel.read(buffer) < 0) {
+                        throw new EOFException("Snapshot is truncated");
+                    }
+                }
+                buffer.flip();
+            }
+            return buffer;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package fitness.studiomanager;
 
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -11,8 +13,14 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 /**
  * Controller class for the Studio Manager application.
@@ -20,19 +28,42 @@ import java.util.Objects;
  * @author Woogyeom Sim, Aravind Chendu
  */
 public class StudioManagerController {
-
-    private MemberList memberlist;
-    private Schedule schedule;
+    private static final Path SNAPSHOT_FILE = Path.of("studiomanager.snapshot");
+    private static final Path LOG_FILE = Path.of("studiomanager.log");
+    private static final int CHECKPOINT_INTERVAL = 1000;
+    private static final String CONSOLE_LOG = "studiomanager-console%g.log";
+    private static final int CONSOLE_LOG_LIMIT = 1 << 20;
+    private static final int CONSOLE_LOG_COUNT = 3;
+    private static final int CONSOLE_HISTORY = 2000; // lines kept in the text area
+
+    private StudioService service;
+    private AttendanceLog attendanceLog;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "roster-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Task<?> loading;
+    private final MemberTableModel memberRows = new MemberTableModel();
+    private LogSink console;
 
     /**
      * Initializes the StudioManager with an empty member list and schedule.
      */
     public StudioManagerController() {
-        this.memberlist = new MemberList();
-        this.schedule = new Schedule();
+        this.service = new StudioService(new MemberList(), new Schedule());
     }
 
 
+    @FXML
+    private ProgressBar loadProgressBar;
+
+    @FXML
+    private TabPane tabPane;
+
+    @FXML
+    private Button cancelLoadButton;
+
     // first tab
 
     @FXML
@@ -127,21 +158,152 @@ public class StudioManagerController {
     @FXML
     private TableColumn<Location, String> zipcodeColumn;
 
+    // members tab
+
+    @FXML
+    private Tab membersTab;
+
+    @FXML
+    private TextField memberFilterTextField;
+
+    @FXML
+    private TableView<Member> memberTable;
+
+    @FXML
+    private TableColumn<Member, String> memberProfileColumn;
+
+    @FXML
+    private TableColumn<Member, String> memberTypeColumn;
+
+    @FXML
+    private TableColumn<Member, String> memberStudioColumn;
+
+    @FXML
+    private TableColumn<Member, String> memberCountyColumn;
+
+    @FXML
+    private TableColumn<Member, String> memberExpireColumn;
+
+    @FXML
+    private TableColumn<Member, String> memberFeeColumn;
+
     /**
-     * Initializes the TableView for displaying studio locations.
+     * Initializes the console, the TableView for displaying studio locations, the member browser,
+     * and recovers the state of the previous session from the attendance log.
      */
     @FXML
     public void initialize() {
+        console = new LogSink(textArea, CONSOLE_HISTORY);
+        console.start();
+        try {
+            console.mirrorTo(CONSOLE_LOG, CONSOLE_LOG_LIMIT, CONSOLE_LOG_COUNT);
+        } catch (IOException e) {
+            print("Could not open the console log: " + e.getMessage());
+        }
+
         cityColumn.setCellValueFactory(new PropertyValueFactory<Location, String>("city"));
         countyColumn.setCellValueFactory(new PropertyValueFactory<Location, String>("county"));
         zipcodeColumn.setCellValueFactory(new PropertyValueFactory<Location, String>("zipcode"));
 
         ObservableList<Location> locations = FXCollections.observableArrayList(Location.values());
         locationTable.setItems(locations);
+
+        initializeMemberTable();
+        recover();
+        refreshMemberTable();
+    }
+
+    /**
+     * Sets up the member browser. Cell values are computed only for the rows on screen, and sorting by a column
+     * shows a new sorted view of the member list instead of sorting the rows of the table.
+     */
+    private void initializeMemberTable() {
+        memberProfileColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().getProfile().toString()));
+        memberTypeColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().getClass().getSimpleName()));
+        memberStudioColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().getHomeStudio().getCity()));
+        memberCountyColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().getHomeStudio().getCounty() + ", " + cell.getValue().getHomeStudio().getZipcode()));
+        memberExpireColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().getExpire().toString()));
+        memberFeeColumn.setCellValueFactory(cell -> new ReadOnlyStringWrapper("$" + cell.getValue().bill()));
+        memberTable.setFixedCellSize(24);
+        memberTable.setItems(memberRows);
+        memberTable.setSortPolicy(table -> {
+            refreshMemberTable();
+            return true;
+        });
+        memberFilterTextField.textProperty().addListener((observable, oldText, newText) -> refreshMemberTable());
+    }
+
+    /**
+     * Shows the member list in the member browser, in the order of the sort column and filtered by name.
+     * Member, County and Next Due sort by profile, by county and zipcode, and by next due amount.
+     */
+    private void refreshMemberTable() {
+        Comparator<Member> order = MemberList.BY_PROFILE;
+        if (!memberTable.getSortOrder().isEmpty()) {
+            TableColumn<Member, ?> column = memberTable.getSortOrder().get(0);
+            if (column == memberCountyColumn) {
+                order = MemberList.BY_COUNTY;
+            } else if (column == memberFeeColumn) {
+                order = MemberList.BY_FEE;
+            }
+            if (column.getSortType() == TableColumn.SortType.DESCENDING) {
+                order = order.reversed();
+            }
+        }
+        memberRows.show(service.getMemberList().sortedBy(order), memberFilterTextField.getText());
+    }
+
+    /**
+     * Switches to the member browser, sorted by a column.
+     *
+     * @param column The column to sort by.
+     */
+    private void browseMembers(TableColumn<Member, String> column) {
+        if (service.getMemberList().isEmpty()) {
+            print("Members List is empty!");
+            return;
+        }
+        column.setSortType(TableColumn.SortType.ASCENDING);
+        memberTable.getSortOrder().setAll(List.of(column));
+        tabPane.getSelectionModel().select(membersTab);
+    }
+
+    /**
+     * Restores the last checkpoint and replays the attendance log on top of it.
+     * If recovery fails, the session continues without logging.
+     */
+    private void recover() {
+        attendanceLog = new AttendanceLog(LOG_FILE, SNAPSHOT_FILE, CHECKPOINT_INTERVAL);
+        try {
+            Snapshot state = attendanceLog.recover();
+            service = new StudioService(state.getMemberList(), state.getSchedule(), attendanceLog);
+            if (state.getSchedule().getNumClasses() > 0) {
+                displayScheduleInfo(state.getSchedule());
+            }
+        } catch (IOException e) {
+            attendanceLog = null;
+            print("Could not recover the previous session, attendance will not be logged: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the pending attendance log records and console output to disk. Called when the application stops.
+     */
+    public void shutdown() {
+        loader.shutdownNow();
+        if (attendanceLog != null) {
+            try {
+                attendanceLog.close();
+            } catch (IOException e) {
+                print("Could not write the attendance log: " + e.getMessage());
+            }
+        }
+        console.stop();
     }
 
     /**
      * Handles the action event when the "Load Schedule" button is clicked.
+     * The file is loaded into a copy of the schedule in the background, which replaces the schedule once loaded.
      *
      * @param event The action event.
      */
@@ -154,17 +316,94 @@ public class StudioManagerController {
         File file = filechooser.showOpenDialog(null);
 
         if (file != null) {
-            try {
-                schedule.load(file);
+            Schedule copy = new Schedule(service.getSchedule());
+            startLoad(new Task<Schedule>() {
+                @Override
+                protected Schedule call() throws IOException {
+                    long length = file.length();
+                    copy.load(file, bytes -> updateProgress(bytes, length));
+                    return copy;
+                }
+            }, loaded -> {
+                service = service.withState(service.getMemberList(), loaded);
+                checkpoint();
                 print("Class Schedule loaded");
-                displayScheduleInfo(schedule);
-            } catch (Exception e) {
+                displayScheduleInfo(loaded);
+            }, () -> {
                 Alert alert = new Alert(Alert.AlertType.ERROR);
                 alert.setTitle("Error Loading Schedule");
                 alert.setHeaderText(null);
                 alert.setContentText("Could not load the schedule file.");
                 alert.showAndWait();
-            }
+            });
+        }
+    }
+
+    /**
+     * Runs a load on the background loader thread while the progress bar follows it, and publishes
+     * the loaded copy on the JavaFX Application Thread when it completes. Loads, and adding members,
+     * are disabled until then, so the copy is the only one being extended.
+     *
+     * @param <T> The type of the loaded state.
+     * @param task The load, which returns a copy of the current state extended with the file.
+     * @param publish Makes the loaded copy the current state.
+     * @param failure Reports a load that failed.
+     */
+    private <T> void startLoad(Task<T> task, Consumer<T> publish, Runnable failure) {
+        loading = task;
+        setLoading(true);
+        loadProgressBar.progressProperty().bind(task.progressProperty());
+        task.setOnSucceeded(event -> {
+            setLoading(false);
+            publish.accept(task.getValue());
+        });
+        task.setOnFailed(event -> {
+            setLoading(false);
+            failure.run();
+        });
+        task.setOnCancelled(event -> {
+            setLoading(false);
+            print("Loading cancelled.");
+        });
+        loader.execute(task);
+    }
+
+    /**
+     * Shows or hides the progress of a load, and disables the controls that must wait for it.
+     *
+     * @param active True while a load is running.
+     */
+    private void setLoading(boolean active) {
+        if (!active) {
+            loading = null;
+            loadProgressBar.progressProperty().unbind();
+        }
+        loadProgressBar.setVisible(active);
+        cancelLoadButton.setDisable(!active);
+        loadMembersButton.setDisable(active);
+        loadScheduleButton.setDisable(active);
+        addNewButton.setDisable(active);
+    }
+
+    /**
+     * Handles the action event when the "Cancel" button is clicked, stopping the running load.
+     * The state is left as it was before the load.
+     */
+    @FXML
+    private void onCancelLoadButtonClick() {
+        if (loading != null) {
+            loading.cancel(true);
+        }
+    }
+
+    /**
+     * Saves the current state as a snapshot and empties the attendance log.
+     */
+    private void checkpoint() {
+        try {
+            service.checkpoint();
+        } catch (IOException e) {
+            print("Could not save a checkpoint: " + e.getMessage());
         }
     }
 
@@ -278,30 +517,21 @@ public class StudioManagerController {
             return;
         }
         Date date = stringToDate(dobDatePicker1.getValue().toString());
-        if (date != null && !dateCheck(date)) {
+        if (date == null) {
             return;
         }
-        Profile profile = new Profile(fname, lname, date);
         Location homestudio = stringToLocation(homeStudioStr1);
-        Member member = switch (memberTypeStr) {
-            case "Basic" -> new Basic(profile, Date.getExpirationDate("B"), homestudio);
-            case "Family" -> new Family(profile, Date.getExpirationDate("F"), homestudio);
-            case "Premium" -> new Premium(profile, Date.getExpirationDate("P"), homestudio);
-            default -> null;
-        };
-
-        if (memberlist.contains(member)) {
-            print(fname + " " + lname + " is already in the member database.");
-            return;
+        StudioService.Result result = service.addMember(memberTypeStr.charAt(0), new Profile(fname, lname, date), homestudio);
+        if (result.isSuccess()) {
+            refreshMemberTable();
         }
-
-        memberlist.add(member);
-        print(fname + " " + lname + " added");
+        print(result.message());
     }
 
     /**
      * Handles the action event when the "Load Members" button is clicked.
      * Opens a file chooser dialog to load member data from a text file.
+     * The file is loaded into a copy of the member list in the background, which replaces the member list once loaded.
      * Displays appropriate messages for successful or failed loading.
      *
      * @throws IOException If an I/O error occurs.
@@ -316,163 +546,135 @@ public class StudioManagerController {
         File file = fileChooser.showOpenDialog(stage);
 
         if (file != null) {
-            try {
-                memberlist.load(file);
+            MemberList copy = new MemberList(service.getMemberList());
+            startLoad(new Task<MemberList>() {
+                @Override
+                protected MemberList call() throws IOException {
+                    long length = file.length();
+                    copy.load(file, bytes -> updateProgress(bytes, length));
+                    return copy;
+                }
+            }, loaded -> {
+                service = service.withState(loaded, service.getSchedule());
+                checkpoint();
+                refreshMemberTable();
                 print("Members loaded.");
-            } catch (IOException e) {
-                print("Error loading members");
-            }
+            }, () -> print("Error loading members"));
         }
     }
 
     /**
      * Handles the action event when the "Add Member" button is clicked.
-     * Validates the selected fitness class and member, and adds the member to the class.
+     * Records the member entered as attending the selected fitness class.
      * Displays appropriate messages for invalid input, existing members, or class conflicts.
      */
     @FXML
     private void onAddMemberButtonClick() {
-        FitnessClass fitnessClass = checkClassValidity();
-        if (fitnessClass == null) return;
-        Member member = checkMemberValidity();
-        if (member == null) return;
-
-        if (member instanceof Basic && member.getHomeStudio() != fitnessClass.getStudio()) {
-            print(member.getProfile().toString() + " is attending a class at " + fitnessClass.getStudio().getCity() + ". - [BASIC] home studio at " + member.getHomeStudio().getCity());
-            return;
-        }
-        if (fitnessClass.getMembers().contains(member)) {
-            print(member.getProfile().toString() + " is already in the class.");
-            return;
-        }
-        FitnessClass[] classes = new FitnessClass[schedule.getNumClasses()];
-        int count = 0;
-        Time time = fitnessClass.getTime();
-        for (int i = 0; i < schedule.getNumClasses(); i++) {
-            if (schedule.getClasses()[i].getTime().equals(time)) {
-                classes[count] = schedule.getClasses()[i];
-                count++;
-            }
-        }
-        for (int i = 0; i < count; i++) {
-            if (classes[i].getMembers().contains(member)) {
-                print("Time conflict - " + member.getProfile().toString() + " is in another class held at " + time.toString() + " - " + fitnessClass.toString());
-                return;
-            }
-        }
-        fitnessClass.addMember(member);
-        if (member instanceof  Basic) {
-            ((Basic) member).setNumClasses(((Basic) member).getNumClasses() + 1);
-        }
-        print(member.getProfile().toString() + " attendance recorded " + fitnessClass.getClassInfo() + " at " + fitnessClass.getStudio());
+        checkIn(service::recordAttendance);
     }
 
     /**
      * Handles the action event when the "Remove Member" button is clicked.
-     * Validates the selected fitness class and member, and removes the member from the class.
+     * Removes the member entered from the selected fitness class.
      * Displays appropriate messages for invalid input or non-existing members.
      */
     @FXML
     private void onRemoveMemberButtonClick() {
-        FitnessClass fitnessClass = checkClassValidity();
-        if (fitnessClass == null) return;
-        Member member = checkMemberValidity();
-        if (member == null) return;
-
-        if (!fitnessClass.getMembers().contains(member)) {
-            print(member.getProfile().toString() + " is not in " + fitnessClass.toString());
-            return;
-        }
-        fitnessClass.removeMember(member);
-        print(member.getProfile().toString() + " is removed from " + fitnessClass.toString());
+        checkIn(service::removeAttendance);
     }
 
     /**
      * Handles the action event when the "Add Guest" button is clicked.
-     * Validates the selected fitness class and member, and adds the member as a guest to the class.
+     * Records a guest of the member entered as attending the selected fitness class.
      * Updates guest pass information and displays appropriate messages.
      */
     @FXML
     private void onAddGuestButtonClick() {
-        FitnessClass fitnessClass = checkClassValidity();
-        if (fitnessClass == null) return;
-        Member member = checkMemberValidity();
-        if (member == null) return;
-        if (getGuestPass(member) <= 0) {
-            print("guest pass not available.");
-            return;
-        }
-        if (member.getHomeStudio() != fitnessClass.getStudio()) {
-            print(member.getProfile().toString() + " (guest) is attending a class at " + fitnessClass.getStudio().getCity() + ". - home studio at " + member.getHomeStudio().getCity());
-            return;
-        }
-        if (fitnessClass.getGuests().contains(member)) {
-            print(member.getProfile().toString() + " (guest) is already in the class.");
-            return;
-        }
-        fitnessClass.addGuest(member);
-        if (member instanceof Family) {
-            ((Family) member).setGuest(false);
-            guestPassTextField2.setText(Integer.toString(getGuestPass(member)));
-        } else if (member instanceof Premium) {
-            ((Premium) member).setGuestPass(getGuestPass(member) - 1);
-            guestPassTextField2.setText(Integer.toString(getGuestPass(member)));
-        }
-        print(member.getProfile().toString() + " (guest) attendance recorded at " + fitnessClass.toString());
+        checkIn(service::recordGuest);
     }
 
     /**
      * Handles the action event when the "Remove Guest" button is clicked.
-     * Validates the selected fitness class and guest member, and removes the guest from the class.
+     * Removes a guest of the member entered from the selected fitness class.
      * Updates guest pass information and displays appropriate messages.
      */
     @FXML
     private void onRemoveGuestButtonClick() {
-        FitnessClass fitnessClass = checkClassValidity();
-        if (fitnessClass == null) return;
-        Member member = checkMemberValidity();
-        if (member == null) return;
+        checkIn(service::removeGuest);
+    }
 
-        if (!fitnessClass.getGuests().contains(member)) {
-            print(member.getProfile().toString() + " (guest) is not in " + fitnessClass.toString());
+    /**
+     * Carries out an attendance operation on the selected fitness class for the member entered,
+     * then shows its message and the guest passes the member has left.
+     *
+     * @param operation The operation of the studio service.
+     */
+    private void checkIn(StudioService.CheckIn operation) {
+        Offer offer = stringToOffer(classTypeStr);
+        Instructor instructor = stringToInstructor(instructorStr);
+        Location studio = stringToLocation(homeStudioStr2);
+        if (offer == null || instructor == null || studio == null) {
+            return;
+        }
+        String fname = firstNameTextField2.getText();
+        String lname = lastNameTextField2.getText();
+        if (fname == null || lname == null || dobDatePicker2.getValue() == null)
+        {
+            print("invalid input");
+            return;
+        }
+        Date date = stringToDate(dobDatePicker2.getValue().toString());
+        if (date == null) {
             return;
         }
-        fitnessClass.removeGuest(member);
-        if (member instanceof Family) {
-            ((Family) member).setGuest(true);
-            guestPassTextField2.setText(Integer.toString(getGuestPass(member)));
-        } else if (member instanceof Premium) {
-            ((Premium) member).setGuestPass(getGuestPass(member) + 1);
-            guestPassTextField2.setText(Integer.toString(getGuestPass(member)));
+        StudioService.Result result = operation.apply(offer, instructor, studio, new Profile(fname, lname, date));
+        if (result.member() != null && result.outcome() != StudioService.Outcome.EXPIRED) {
+            guestPassTextField2.setText(Integer.toString(StudioService.getGuestPass(result.member())));
         }
-        print(member.getProfile().toString() + " (guest) is removed from " + fitnessClass.toString());
+        if (result.isSuccess()) {
+            memberTable.refresh();
+        } // guest passes and classes attended are shown in the member browser
+        print(result.message());
     }
 
     /**
      * Handles the action event when the "Print By Profile" button is clicked.
-     * Prints the member list sorted by profile information.
+     * Shows the member list sorted by profile information in the member browser.
      */
     @FXML
     private void onPrintByProfileButtonClicked() {
-        print(memberlist.printByMember());
+        browseMembers(memberProfileColumn);
     }
 
     /**
      * Handles the action event when the "Print By County" button is clicked.
-     * Prints the member list sorted by county information.
+     * Shows the member list sorted by county information in the member browser.
      */
     @FXML
     private void onPrintByCountyButtonClicked() {
-        print(memberlist.printByCounty());
+        browseMembers(memberCountyColumn);
     }
 
     /**
      * Handles the action event when the "Print With Next Due" button is clicked.
-     * Prints the member list with information about the next due fees.
+     * Shows the member list sorted by the next due fees in the member browser.
      */
     @FXML
     private void onPrintWithNextDueButtonClicked() {
-        print(memberlist.printFees());
+        browseMembers(memberFeeColumn);
+    }
+
+    /**
+     * Handles the action event when the "Revenue" button is clicked.
+     * Prints the running totals of the next due amounts by studio, county and plan.
+     */
+    @FXML
+    private void onShowRevenueButtonClicked() {
+        if (service.getMemberList().isEmpty()) {
+            print("Members List is empty!");
+            return;
+        }
+        print(MemberList.render(service.getBilling()::writeTotals, Location.values().length * 2));
     }
 
     /**
@@ -481,9 +683,10 @@ public class StudioManagerController {
      */
     @FXML
     private void onShowScheduleButtonClicked() {
+        Schedule schedule = service.getSchedule();
         for (int i = 0; i < schedule.getNumClasses(); i++) {
             print(schedule.getClasses()[i].toString());
-        }
+        } // queued and written in one append at the next frame
     }
 
     /**
@@ -492,18 +695,25 @@ public class StudioManagerController {
      */
     @FXML
     private void onShowAttendeesButtonClicked() {
-        for (int i = 0; i < schedule.getNumClasses(); i++) {
-            FitnessClass fitnessClass = schedule.getClasses()[i];
-            print(fitnessClass.toString());
-            if (!fitnessClass.getMembers().isEmpty()) {
-                print("[Attendees]");
-                print(fitnessClass.getMembers().printByMember());
-            }
-            if (!fitnessClass.getGuests().isEmpty()) {
-                print("[Guests]");
-                print(fitnessClass.getMembers().printByMember());
+        Schedule schedule = service.getSchedule();
+        MemberList memberlist = service.getMemberList();
+        String attendees = MemberList.render(out -> {
+            for (int i = 0; i < schedule.getNumClasses(); i++) {
+                FitnessClass fitnessClass = schedule.getClasses()[i];
+                out.append(fitnessClass.toString()).append('\n');
+                if (!fitnessClass.getMembers().isEmpty()) {
+                    out.append("[Attendees]\n");
+                    memberlist.writeByMember(fitnessClass.getMembers(), out);
+                }
+                if (!fitnessClass.getGuests().isEmpty()) {
+                    out.append("[Guests]\n");
+                    memberlist.writeByMember(fitnessClass.getGuests(), out);
+                }
             }
-        }
+        }, schedule.getNumClasses());
+        if (!attendees.isEmpty()) {
+            print(attendees);
+        } // one append instead of one per line
     }
 
     /**
@@ -522,86 +732,17 @@ public class StudioManagerController {
      */
     @FXML
     private void clearTextArea() {
-        textArea.clear();
-    }
-
-    /**
-     * Checks the validity of the selected fitness class based on the provided class type,
-     * instructor, and studio location.
-     *
-     * @return A FitnessClass object representing the valid fitness class, or null if not found.
-     */
-    private FitnessClass checkClassValidity() {
-        Offer offer = stringToOffer(classTypeStr);
-        Instructor instructor = stringToInstructor(instructorStr);
-        Location studio = stringToLocation(homeStudioStr2);
-        FitnessClass fitnessClass = schedule.find(offer, instructor, studio);
-        if (fitnessClass == null) {
-            print("no class found");
-            return null;
-        }
-        return fitnessClass;
+        console.clear();
     }
 
     /**
-     * Checks the validity of the member based on the provided first name, last name, and date of birth.
-     * Validates input data and ensures that the member exists in the member database and has not expired.
-     *
-     * @return A Member object representing the valid member, or null if not found or invalid.
-     */
-    private Member checkMemberValidity() {
-        String fname = firstNameTextField2.getText();
-        String lname = lastNameTextField2.getText();
-        if (fname == null || lname == null || dobDatePicker2.getValue() == null)
-        {
-            print("invalid input");
-            return null;
-        }
-        Date date = stringToDate(dobDatePicker2.getValue().toString());
-        Profile profile = new Profile(fname, lname, date);
-        Member member = new Member(profile, null, null);
-        if (!memberlist.contains(member)) {
-            print(member.getProfile().toString() + " is not in the member database.");
-            return null;
-        }
-        member = memberlist.getMember(memberlist.find(member));
-        if (member.getExpire().isExpired()) {
-            print(member.getProfile().toString() + " membership expired.");
-            return null;
-        }
-        guestPassTextField2.setText(Integer.toString(getGuestPass(member)));
-        return member;
-    }
-
-    /**
-     * Retrieves the number of guest passes available for the given member.
-     *
-     * @param member The member for which to retrieve the guest passes.
-     * @return The number of guest passes available for the member.
-     */
-    private int getGuestPass(Member member) {
-        int guestpass = 0;
-        switch (member) {
-            case Family f -> {
-                guestpass = f.getGuest() ? 1 : 0;
-            }
-            case Premium p -> {
-                guestpass = p.getGuestPass();
-            }
-            default ->  {
-            }
-        }
-        return guestpass;
-    }
-
-    /**
-     * Appends the specified string to the text area for display.
+     * Queues the specified string for display in the text area at the next frame.
      *
      * @param str The string to be appended to the text area.
      */
     @FXML
     private void print(String str) {
-        textArea.appendText(str + '\n');
+        console.print(str);
     }
 
     /**
@@ -695,26 +836,4 @@ public class StudioManagerController {
         return location;
     }
 
-    /**
-     * Checks if the provided dob is valid and not underage.
-     * Prints error messages for invalid or underage dobs.
-     *
-     * @param date The date to be checked.
-     * @return True if the date is valid and not underage, false otherwise.
-     */
-    private boolean dateCheck(Date date) { // return true if the date is valid
-        if (!date.isValid()) {
-            print("DOB " + date.toString() + ": invalid calendar date!");
-            return false;
-        } else if (!date.isExpired()) {
-            print("DOB " + date.toString() + ": cannot be today or a future date!");
-            return false;
-        } else if (date.isUnderage()) {
-            print("DOB " + date.toString() + ": must be 18 or older to join!");
-            return false;
-        }
-
-        return true;
-    }
-
 }
\ No newline at end of file
@@ -14,6 +14,8 @@ import java.io.IOException;
  * @author Woogyeom Sim
  */
 public class StudioManagerMain extends Application {
+    private StudioManagerController controller;
+
     /**
      * Starts the Studio Manager application by loading the FXML layout and displaying it in a stage.
      *
@@ -24,11 +26,22 @@ public class StudioManagerMain extends Application {
     public void start(Stage stage) throws IOException {
         FXMLLoader fxmlLoader = new FXMLLoader(StudioManagerMain.class.getResource("studiomanager.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 550, 550);
+        controller = fxmlLoader.getController();
         stage.setTitle("RU Fitness Club - Studio Manager");
         stage.setScene(scene);
         stage.show();
     }
 
+    /**
+     * Stops the Studio Manager application, writing any pending attendance records to disk.
+     */
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
     /**
      * The main entry point for the Studio Manager application.
      * It launches the JavaFX application.
@@ -0,0 +1,495 @@
+package fitness.studiomanager;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves the operations of a StudioService over HTTP for kiosks and the mobile app, on the JDK's built-in
+ * HTTP server with one virtual thread per request, so the JavaFX interface does not need to be running.
+ * Arguments are passed as query parameters and every response is a JSON object:
+ *
+ * GET /members?fname&lname&dob - look up a member
+ * POST /members?type&fname&lname&dob&studio - add a member of type B, F or P
+ * GET /classes[?studio][&time] - list the classes, optionally at a studio and/or time
+ * POST, DELETE /attendance?class&instructor&studio&fname&lname&dob - record / remove attendance of a member
+ * POST, DELETE /guests?class&instructor&studio&fname&lname&dob - record / remove a guest of a member
+ * GET /revenue - read the total next due amount in cents by studio, county and plan
+ *
+ * Dates are written as month/day/year. A rejected operation answers 404 if the member or class does not exist,
+ * 409 if a rule forbids it, and 400 if the arguments are invalid; the message is the one shown by the controller.
+ * Any other failure answers 500.
+ *
+ * @author Woogyeom Sim
+ */
+public class StudioServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024;
+    private static final int OK = 200;
+    private static final int CREATED = 201;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int CONFLICT = 409;
+    private static final int INTERNAL_ERROR = 500;
+    private static final Path SNAPSHOT_FILE = Path.of("studiomanager.snapshot");
+    private static final Path LOG_FILE = Path.of("studiomanager.log");
+    private static final int CHECKPOINT_INTERVAL = 1000;
+    private static final Logger LOGGER = Logger.getLogger(StudioServer.class.getName());
+
+    private final StudioService service;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructs a server for a studio service bound to an address. The server does not accept requests until started.
+     *
+     * @param service The studio service, which must be safe to use from several threads.
+     * @param address The address to bind, with port 0 for any free port.
+     * @throws IOException If the address cannot be bound.
+     */
+    public StudioServer(StudioService service, InetSocketAddress address) throws IOException {
+        this.service = service;
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/members", exchange -> handle(exchange, this::members));
+        server.createContext("/classes", exchange -> handle(exchange, this::classes));
+        server.createContext("/attendance", exchange -> handle(exchange, this::attendance));
+        server.createContext("/guests", exchange -> handle(exchange, this::guests));
+        server.createContext("/revenue", exchange -> handle(exchange, this::revenue));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waiting up to a delay for the requests in progress to finish.
+     *
+     * @param delay The maximum time to wait in seconds.
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port the server is bound to, e.g. the one chosen for port 0.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handles GET and POST /members: looks up or adds a member.
+     *
+     * @param method The request method.
+     * @param query The query parameters.
+     * @return The response.
+     */
+    private Response members(String method, Map<String, String> query) {
+        return switch (method) {
+            case "GET" -> respond(service.findMember(profile(query)));
+            case "POST" -> {
+                String type = query.getOrDefault("type", "");
+                if (type.length() != 1 || "BFP".indexOf(type.charAt(0)) < 0) {
+                    throw new IllegalArgumentException(type + " - invalid membership type.");
+                }
+                Location studio = parse(Location.values(), query.get("studio"), " - invalid studio location.");
+                yield respond(service.addMember(type.charAt(0), profile(query), studio));
+            }
+            default -> methodNotAllowed();
+        };
+    }
+
+    /**
+     * Handles GET /classes: lists the classes of the schedule, optionally at a studio and/or time.
+     *
+     * @param method The request method.
+     * @param query The query parameters.
+     * @return The response.
+     */
+    private Response classes(String method, Map<String, String> query) {
+        if (!method.equals("GET")) {
+            return methodNotAllowed();
+        }
+        Location studio = query.containsKey("studio") ? parse(Location.values(), query.get("studio"), " - invalid studio location.") : null;
+        Time time = query.containsKey("time") ? parse(Time.values(), query.get("time"), " - invalid time.") : null;
+        StringBuilder json = new StringBuilder("{\"classes\":[");
+        service.shared(() -> {
+            Schedule schedule = service.getSchedule();
+            List<FitnessClass> candidates = studio != null ? schedule.findByStudio(studio)
+                    : time != null ? schedule.findByTime(time)
+                    : Arrays.asList(schedule.getClasses()).subList(0, schedule.getNumClasses());
+            boolean first = true;
+            for (FitnessClass fitnessClass : candidates) {
+                if (time == null || fitnessClass.getTime() == time) {
+                    if (!first) {
+                        json.append(',');
+                    }
+                    first = false;
+                    appendClass(json, fitnessClass);
+                }
+            }
+            return null;
+        });
+        return new Response(OK, json.append("]}").toString());
+    }
+
+    /**
+     * Handles GET /revenue: reads the running totals of the next due amounts in cents,
+     * by home studio, county and plan, and overall.
+     *
+     * @param method The request method.
+     * @param query The query parameters.
+     * @return The response.
+     */
+    private Response revenue(String method, Map<String, String> query) {
+        if (!method.equals("GET")) {
+            return methodNotAllowed();
+        }
+        StringBuilder json = new StringBuilder("{\"studios\":{");
+        service.shared(() -> {
+            BillingEngine billing = service.getBilling();
+            Set<String> counties = new LinkedHashSet<>();
+            for (Location studio : Location.values()) {
+                json.append(studio.ordinal() == 0 ? "" : ",").append('"').append(studio.name()).append("\":")
+                        .append(billing.getStudioTotal(studio));
+                counties.add(studio.getCounty());
+            }
+            json.append("},\"counties\":{");
+            boolean first = true;
+            for (String county : counties) {
+                json.append(first ? "" : ",").append('"').append(county.toUpperCase()).append("\":")
+                        .append(billing.getCountyTotal(county));
+                first = false;
+            }
+            json.append("},\"plans\":{\"Basic\":").append(billing.getPlanTotal('B'))
+                    .append(",\"Family\":").append(billing.getPlanTotal('F'))
+                    .append(",\"Premium\":").append(billing.getPlanTotal('P'))
+                    .append("},\"total\":").append(billing.getTotal());
+            return null;
+        });
+        return new Response(OK, json.append('}').toString());
+    }
+
+    /**
+     * Handles POST and DELETE /attendance: records or removes attendance of a member.
+     *
+     * @param method The request method.
+     * @param query The query parameters.
+     * @return The response.
+     */
+    private Response attendance(String method, Map<String, String> query) {
+        return switch (method) {
+            case "POST" -> checkIn(service::recordAttendance, query);
+            case "DELETE" -> checkIn(service::removeAttendance, query);
+            default -> methodNotAllowed();
+        };
+    }
+
+    /**
+     * Handles POST and DELETE /guests: records or removes a guest of a member.
+     *
+     * @param method The request method.
+     * @param query The query parameters.
+     * @return The response.
+     */
+    private Response guests(String method, Map<String, String> query) {
+        return switch (method) {
+            case "POST" -> checkIn(service::recordGuest, query);
+            case "DELETE" -> checkIn(service::removeGuest, query);
+            default -> methodNotAllowed();
+        };
+    }
+
+    /**
+     * Carries out an attendance operation for the class and member named by the query.
+     *
+     * @param operation The operation of the studio service, e.g. StudioService.recordAttendance.
+     * @param query The query parameters.
+     * @return The response.
+     */
+    private Response checkIn(StudioService.CheckIn operation, Map<String, String> query) {
+        Offer offer = parse(Offer.values(), query.get("class"), " - class name does not exist.");
+        Instructor instructor = parse(Instructor.values(), query.get("instructor"), " - instructor does not exist.");
+        Location studio = parse(Location.values(), query.get("studio"), " - invalid studio location.");
+        return respond(operation.apply(offer, instructor, studio, profile(query)));
+    }
+
+    /**
+     * Builds the response to the result of an operation.
+     *
+     * @param result The result.
+     * @return The response, with the member and class concerned if any.
+     */
+    private static Response respond(StudioService.Result result) {
+        int status = switch (result.outcome()) {
+            case MEMBER_ADDED, ATTENDANCE_RECORDED, GUEST_RECORDED -> CREATED;
+            case MEMBER_FOUND, ATTENDANCE_REMOVED, GUEST_REMOVED -> OK;
+            case NOT_MEMBER, NO_CLASS -> NOT_FOUND;
+            case INVALID_DATE, FUTURE_DATE -> BAD_REQUEST;
+            default -> CONFLICT;
+        };
+        StringBuilder json = new StringBuilder("{\"outcome\":\"").append(result.outcome()).append("\",\"message\":");
+        appendString(json, result.message());
+        if (result.member() != null) {
+            json.append(",\"member\":");
+            appendMember(json, result.member());
+        }
+        if (result.fitnessClass() != null) {
+            json.append(",\"class\":");
+            appendClass(json, result.fitnessClass());
+        }
+        return new Response(status, json.append('}').toString());
+    }
+
+    /**
+     * Reads the profile named by the fname, lname and dob query parameters.
+     *
+     * @param query The query parameters.
+     * @return The profile.
+     * @throws IllegalArgumentException If a parameter is missing or the date is not three numbers.
+     */
+    private static Profile profile(Map<String, String> query) {
+        String fname = query.get("fname");
+        String lname = query.get("lname");
+        String dob = query.get("dob");
+        if (fname == null || lname == null || dob == null) {
+            throw new IllegalArgumentException("fname, lname and dob are required.");
+        }
+        StringTokenizer fields = new StringTokenizer(dob, "/");
+        try {
+            if (fields.countTokens() == 3) {
+                int month = Integer.parseInt(fields.nextToken());
+                int day = Integer.parseInt(fields.nextToken());
+                int year = Integer.parseInt(fields.nextToken());
+                return new Profile(fname, lname, new Date(month, day, year));
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("DOB " + dob + ": invalid calendar date!");
+    }
+
+    /**
+     * Finds the enum constant named by a query parameter, ignoring case.
+     *
+     * @param values The constants of the enum.
+     * @param token The query parameter, or null if it is missing.
+     * @param error The message after the parameter if no constant matches.
+     * @param <E> The enum.
+     * @return The constant.
+     * @throws IllegalArgumentException If no constant matches.
+     */
+    private static <E extends Enum<E>> E parse(E[] values, String token, String error) {
+        if (token != null) {
+            for (E value : values) {
+                if (value.name().equalsIgnoreCase(token)) {
+                    return value;
+                }
+            }
+        }
+        throw new IllegalArgumentException(token + error);
+    }
+
+    /**
+     * Parses a URL query string into its parameters. A parameter given twice keeps its last value.
+     *
+     * @param rawQuery The encoded query string, or null if there is none.
+     * @return The decoded parameters.
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        StringTokenizer pairs = new StringTokenizer(rawQuery, "&");
+        while (pairs.hasMoreTokens()) {
+            String pair = pairs.nextToken();
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    /**
+     * Appends a member as a JSON object.
+     *
+     * @param json The JSON being built.
+     * @param member The member.
+     */
+    private static void appendMember(StringBuilder json, Member member) {
+        json.append("{\"id\":").append(member.getId()).append(",\"profile\":");
+        appendString(json, member.getProfile().toString());
+        json.append(",\"type\":\"").append(member.getClass().getSimpleName())
+                .append("\",\"homeStudio\":\"").append(member.getHomeStudio().name())
+                .append("\",\"expire\":\"").append(member.getExpire())
+                .append("\",\"guestPasses\":").append(StudioService.getGuestPass(member)).append('}');
+    }
+
+    /**
+     * Appends a fitness class as a JSON object.
+     *
+     * @param json The JSON being built.
+     * @param fitnessClass The class.
+     */
+    private static void appendClass(StringBuilder json, FitnessClass fitnessClass) {
+        json.append("{\"class\":\"").append(fitnessClass.getClassInfo().name())
+                .append("\",\"instructor\":\"").append(fitnessClass.getInstructor().name())
+                .append("\",\"studio\":\"").append(fitnessClass.getStudio().name())
+                .append("\",\"time\":\"").append(fitnessClass.getTime().name())
+                .append("\",\"members\":").append(fitnessClass.getMembers().getSize())
+                .append(",\"guests\":").append(fitnessClass.getGuests().getSize()).append('}');
+    }
+
+    /**
+     * Appends a string as a JSON string literal, escaping quotes, backslashes and control characters.
+     *
+     * @param json The JSON being built.
+     * @param str The string.
+     */
+    private static void appendString(StringBuilder json, String str) {
+        json.append('"');
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Returns the response to a method the endpoint does not support.
+     *
+     * @return The response.
+     */
+    private static Response methodNotAllowed() {
+        return error(METHOD_NOT_ALLOWED, "method not allowed");
+    }
+
+    /**
+     * Builds an error response.
+     *
+     * @param status The HTTP status.
+     * @param message The message.
+     * @return The response.
+     */
+    private static Response error(int status, String message) {
+        StringBuilder json = new StringBuilder("{\"message\":");
+        appendString(json, message);
+        return new Response(status, json.append('}').toString());
+    }
+
+    /**
+     * Runs an endpoint for a request and sends its response. Invalid arguments answer 400 with their message,
+     * and any other failure answers 500, so the client always gets a response.
+     *
+     * @param exchange The request and response.
+     * @param endpoint The endpoint.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try (exchange) {
+            Response response;
+            try {
+                response = endpoint.serve(exchange.getRequestMethod(), parseQuery(exchange.getRequestURI().getRawQuery()));
+            } catch (IllegalArgumentException e) {
+                response = error(BAD_REQUEST, e.getMessage());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed", e);
+                response = error(INTERNAL_ERROR, "Internal server error");
+            }
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * A response: an HTTP status and a JSON body.
+     *
+     * @param status The HTTP status.
+     * @param body The JSON body.
+     */
+    private record Response(int status, String body) {
+    }
+
+    /**
+     * Serves the requests to one path.
+     */
+    private interface Endpoint {
+        Response serve(String method, Map<String, String> query);
+    }
+
+    /**
+     * Recovers the previous session from the snapshot and attendance log in the working directory, the same
+     * files the desktop application uses, loads the given member and schedule files, if any, and serves them
+     * until the process is stopped. Every change is logged, and the log is flushed when the process exits.
+     * Turns on TCP_NODELAY for the JDK server unless sun.net.httpserver.nodelay is given on the command line:
+     * the server flushes the headers before the body, so with Nagle's algorithm every keep-alive response
+     * waits about 40 ms for a delayed ACK.
+     *
+     * @param args The port, then optionally the member file and the class schedule file.
+     * @throws IOException If the session cannot be recovered, a file cannot be loaded or the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        } // read once when the JDK server is first used, so set before creating it
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        AttendanceLog attendanceLog = new AttendanceLog(LOG_FILE, SNAPSHOT_FILE, CHECKPOINT_INTERVAL);
+        Snapshot state = attendanceLog.recover();
+        StudioService service = new StudioService(state.getMemberList(), state.getSchedule(), attendanceLog);
+        if (args.length > 1) {
+            service.loadMembers(new File(args[1]));
+        }
+        if (args.length > 2) {
+            service.loadSchedule(new File(args[2]));
+        }
+        StudioServer server = new StudioServer(service, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            try {
+                attendanceLog.close();
+            } catch (IOException e) {
+                System.err.println("Could not write the attendance log: " + e.getMessage());
+            }
+        }, "studio-server-shutdown"));
+        server.start();
+        System.err.println("Studio server listening on port " + server.getPort());
+    }
+}
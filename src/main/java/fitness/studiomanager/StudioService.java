@@ -0,0 +1,637 @@
+package fitness.studiomanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Carries out the operations of the studio manager on a member list and a schedule: adding members,
+ * loading files, and recording attendance and guests under the club's rules (expired memberships,
+ * the home studio restriction of Basic members, time conflicts and guest passes).
+ * Every operation returns a Result telling whether it succeeded or why it was rejected, and never
+ * touches a user interface, so the JavaFX controller, the command processor and any other caller share the rules.
+ * If an attendance log is given, every change is recorded in it and checkpoints are taken as it fills up.
+ * The service keeps running fee totals of its member list in a billing engine.
+ *
+ * The service is safe to use from several threads, e.g. front-desk terminals and a kiosk. Attendance operations
+ * lock the member, by a stripe of member IDs, and then the class, so operations on different members and classes
+ * run in parallel while the time conflict and guest pass checks stay atomic. Adding and loading members, loading
+ * classes and taking checkpoints change the member list or the schedule themselves and run alone.
+ *
+ * @author Woogyeom Sim
+ */
+public class StudioService {
+    private static final int MEMBER_STRIPES = 64; // a power of two, so a stripe is an ID masked
+    private static final Logger LOGGER = Logger.getLogger(StudioService.class.getName());
+    private final MemberList memberList;
+    private final Schedule schedule;
+    private final AttendanceLog attendanceLog;
+    private final BillingEngine billing;
+    private final ReentrantLock[] memberLocks = new ReentrantLock[MEMBER_STRIPES];
+    private final ReentrantReadWriteLock state = new ReentrantReadWriteLock(); // write-locked to change the member list or the schedule
+
+    /**
+     * The outcome of an operation: success, or the reason it was rejected.
+     */
+    public enum Outcome {
+        MEMBER_ADDED(true),
+        MEMBER_FOUND(true),
+        ATTENDANCE_RECORDED(true),
+        ATTENDANCE_REMOVED(true),
+        GUEST_RECORDED(true),
+        GUEST_REMOVED(true),
+        INVALID_DATE(false),
+        FUTURE_DATE(false),
+        UNDERAGE(false),
+        ALREADY_MEMBER(false),
+        NOT_MEMBER(false),
+        EXPIRED(false),
+        NO_CLASS(false),
+        HOME_STUDIO_ONLY(false),
+        ALREADY_IN_CLASS(false),
+        TIME_CONFLICT(false),
+        NOT_IN_CLASS(false),
+        NO_GUEST_PASS(false),
+        GUEST_HOME_STUDIO_ONLY(false),
+        ALREADY_GUEST(false),
+        NOT_GUEST(false);
+
+        private final boolean success;
+
+        /**
+         * Constructs an outcome.
+         *
+         * @param success True if the outcome is a success.
+         */
+        Outcome(boolean success) {
+            this.success = success;
+        }
+
+        /**
+         * Checks if the outcome is a success.
+         *
+         * @return True if the operation was carried out, false if it was rejected.
+         */
+        public boolean isSuccess() {
+            return success;
+        }
+    }
+
+    /**
+     * An attendance operation of the service, e.g. StudioService.recordAttendance,
+     * so callers can share the parsing and reporting around the four of them.
+     */
+    @FunctionalInterface
+    public interface CheckIn {
+        /**
+         * Carries out the operation.
+         *
+         * @param offer The class name.
+         * @param instructor The instructor.
+         * @param studio The studio.
+         * @param profile The profile of the member.
+         * @return The result of the operation.
+         */
+        Result apply(Offer offer, Instructor instructor, Location studio, Profile profile);
+    }
+
+    /**
+     * The result of an operation.
+     *
+     * @param outcome The outcome.
+     * @param profile The profile of the member concerned, as stored if the member exists.
+     * @param member The member concerned, or null if there is none.
+     * @param fitnessClass The class concerned, or null if there is none.
+     */
+    public record Result(Outcome outcome, Profile profile, Member member, FitnessClass fitnessClass) {
+        /**
+         * Checks if the operation succeeded.
+         *
+         * @return True if the operation was carried out, false if it was rejected.
+         */
+        public boolean isSuccess() {
+            return outcome.isSuccess();
+        }
+
+        /**
+         * Returns the message shown to the user for this result.
+         *
+         * @return The message.
+         */
+        public String message() {
+            return switch (outcome) {
+                case MEMBER_ADDED -> profile.getFname() + " " + profile.getLname() + " added";
+                case MEMBER_FOUND -> profile.toString();
+                case ATTENDANCE_RECORDED -> profile + " attendance recorded " + fitnessClass.getClassInfo() + " at " + fitnessClass.getStudio();
+                case ATTENDANCE_REMOVED -> profile + " is removed from " + fitnessClass;
+                case GUEST_RECORDED -> profile + " (guest) attendance recorded at " + fitnessClass;
+                case GUEST_REMOVED -> profile + " (guest) is removed from " + fitnessClass;
+                case INVALID_DATE -> "DOB " + profile.getDob() + ": invalid calendar date!";
+                case FUTURE_DATE -> "DOB " + profile.getDob() + ": cannot be today or a future date!";
+                case UNDERAGE -> "DOB " + profile.getDob() + ": must be 18 or older to join!";
+                case ALREADY_MEMBER -> profile.getFname() + " " + profile.getLname() + " is already in the member database.";
+                case NOT_MEMBER -> profile + " is not in the member database.";
+                case EXPIRED -> profile + " membership expired.";
+                case NO_CLASS -> "no class found";
+                case HOME_STUDIO_ONLY -> profile + " is attending a class at " + fitnessClass.getStudio().getCity() + ". - [BASIC] home studio at " + member.getHomeStudio().getCity();
+                case ALREADY_IN_CLASS -> profile + " is already in the class.";
+                case TIME_CONFLICT -> "Time conflict - " + profile + " is in another class held at " + fitnessClass.getTime() + " - " + fitnessClass;
+                case NOT_IN_CLASS -> profile + " is not in " + fitnessClass;
+                case NO_GUEST_PASS -> "guest pass not available.";
+                case GUEST_HOME_STUDIO_ONLY -> profile + " (guest) is attending a class at " + fitnessClass.getStudio().getCity() + ". - home studio at " + member.getHomeStudio().getCity();
+                case ALREADY_GUEST -> profile + " (guest) is already in the class.";
+                case NOT_GUEST -> profile + " (guest) is not in " + fitnessClass;
+            };
+        }
+    }
+
+    /**
+     * Constructs a service over a member list and a schedule that does not log changes.
+     *
+     * @param memberList The member list.
+     * @param schedule The schedule.
+     */
+    public StudioService(MemberList memberList, Schedule schedule) {
+        this(memberList, schedule, null);
+    }
+
+    /**
+     * Constructs a service over a member list and a schedule that records every change in an attendance log.
+     *
+     * @param memberList The member list.
+     * @param schedule The schedule.
+     * @param attendanceLog The recovered attendance log, or null to not log changes.
+     */
+    public StudioService(MemberList memberList, Schedule schedule, AttendanceLog attendanceLog) {
+        this(memberList, schedule, attendanceLog, new BillingEngine());
+    }
+
+    /**
+     * Constructs a service over a member list and a schedule whose fee totals are kept by a billing engine,
+     * which starts tracking the member list.
+     *
+     * @param memberList The member list.
+     * @param schedule The schedule.
+     * @param attendanceLog The recovered attendance log, or null to not log changes.
+     * @param billing The billing engine.
+     */
+    private StudioService(MemberList memberList, Schedule schedule, AttendanceLog attendanceLog, BillingEngine billing) {
+        this.memberList = memberList;
+        this.schedule = schedule;
+        this.attendanceLog = attendanceLog;
+        this.billing = billing;
+        for (int i = 0; i < MEMBER_STRIPES; i++) {
+            memberLocks[i] = new ReentrantLock();
+        }
+        billing.track(memberList);
+    }
+
+    /**
+     * Returns the member list.
+     *
+     * @return The member list.
+     */
+    public MemberList getMemberList() {
+        return memberList;
+    }
+
+    /**
+     * Returns the schedule.
+     *
+     * @return The schedule.
+     */
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Returns the running fee totals of the members, by studio, county and plan.
+     *
+     * @return The billing engine of the service.
+     */
+    public BillingEngine getBilling() {
+        return billing;
+    }
+
+    /**
+     * Returns a service over another member list and schedule that logs to the same attendance log,
+     * e.g. to publish copies loaded in the background. Take a checkpoint afterwards so the log matches.
+     * The billing engine moves to the new member list and recomputes its totals, so use this service
+     * no longer once it returns.
+     *
+     * @param memberList The new member list.
+     * @param schedule The new schedule.
+     * @return The new service.
+     */
+    public StudioService withState(MemberList memberList, Schedule schedule) {
+        state.writeLock().lock();
+        try {
+            return new StudioService(memberList, schedule, attendanceLog, billing);
+        } finally {
+            state.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads members from a text file and saves a checkpoint.
+     *
+     * @param file The file to load members from.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void loadMembers(File file) throws IOException {
+        state.writeLock().lock();
+        try {
+            memberList.load(file);
+            checkpoint();
+        } finally {
+            state.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads fitness classes from a text file and saves a checkpoint.
+     *
+     * @param file The file to load classes from.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void loadSchedule(File file) throws IOException {
+        state.writeLock().lock();
+        try {
+            schedule.load(file);
+            checkpoint();
+        } finally {
+            state.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a new member whose membership starts today.
+     *
+     * @param type The membership type, B, F or P.
+     * @param profile The profile of the member.
+     * @param homeStudio The home studio of the member.
+     * @return MEMBER_ADDED, or why the member was not added.
+     */
+    public Result addMember(char type, Profile profile, Location homeStudio) {
+        Date dob = profile.getDob();
+        if (!dob.isValid()) {
+            return new Result(Outcome.INVALID_DATE, profile, null, null);
+        } else if (!dob.isExpired()) {
+            return new Result(Outcome.FUTURE_DATE, profile, null, null);
+        } else if (dob.isUnderage()) {
+            return new Result(Outcome.UNDERAGE, profile, null, null);
+        }
+        Member member = switch (type) {
+            case 'B' -> new Basic(profile, Date.getExpirationDate("B"), homeStudio);
+            case 'F' -> new Family(profile, Date.getExpirationDate("F"), homeStudio);
+            case 'P' -> new Premium(profile, Date.getExpirationDate("P"), homeStudio);
+            default -> throw new IllegalArgumentException("Invalid membership type. Expected B, F or P but got: " + type);
+        };
+        state.writeLock().lock();
+        try {
+            if (!memberList.add(member)) {
+                return new Result(Outcome.ALREADY_MEMBER, profile, null, null);
+            }
+            journal(log -> log.memberAdded(member));
+        } finally {
+            state.writeLock().unlock();
+        }
+        checkpointIfNeeded();
+        return new Result(Outcome.MEMBER_ADDED, profile, member, null);
+    }
+
+    /**
+     * Finds the member with a profile whose membership has not expired.
+     *
+     * @param profile The profile of the member.
+     * @return MEMBER_FOUND with the member, or NOT_MEMBER or EXPIRED.
+     */
+    public Result findMember(Profile profile) {
+        Member member;
+        state.readLock().lock();
+        try {
+            member = memberList.byId(memberList.idOf(profile));
+        } finally {
+            state.readLock().unlock();
+        }
+        if (member == null) {
+            return new Result(Outcome.NOT_MEMBER, profile, null, null);
+        }
+        if (member.getExpire().isExpired()) {
+            return new Result(Outcome.EXPIRED, member.getProfile(), member, null);
+        }
+        return new Result(Outcome.MEMBER_FOUND, member.getProfile(), member, null);
+    }
+
+    /**
+     * Records a member as attending a class.
+     *
+     * @param offer The class name.
+     * @param instructor The instructor.
+     * @param studio The studio.
+     * @param profile The profile of the member.
+     * @return ATTENDANCE_RECORDED, or why the attendance was not recorded.
+     */
+    public Result recordAttendance(Offer offer, Instructor instructor, Location studio, Profile profile) {
+        return checkIn(offer, instructor, studio, profile, this::recordAttendance);
+    }
+
+    /**
+     * Removes a member from a class.
+     *
+     * @param offer The class name.
+     * @param instructor The instructor.
+     * @param studio The studio.
+     * @param profile The profile of the member.
+     * @return ATTENDANCE_REMOVED, or why the member was not removed.
+     */
+    public Result removeAttendance(Offer offer, Instructor instructor, Location studio, Profile profile) {
+        return checkIn(offer, instructor, studio, profile, this::removeAttendance);
+    }
+
+    /**
+     * Records a guest of a member as attending a class, using up one of the member's guest passes.
+     *
+     * @param offer The class name.
+     * @param instructor The instructor.
+     * @param studio The studio.
+     * @param profile The profile of the member bringing the guest.
+     * @return GUEST_RECORDED, or why the guest was not recorded.
+     */
+    public Result recordGuest(Offer offer, Instructor instructor, Location studio, Profile profile) {
+        return checkIn(offer, instructor, studio, profile, this::recordGuest);
+    }
+
+    /**
+     * Removes a guest of a member from a class, giving the guest pass back.
+     *
+     * @param offer The class name.
+     * @param instructor The instructor.
+     * @param studio The studio.
+     * @param profile The profile of the member who brought the guest.
+     * @return GUEST_REMOVED, or why the guest was not removed.
+     */
+    public Result removeGuest(Offer offer, Instructor instructor, Location studio, Profile profile) {
+        return checkIn(offer, instructor, studio, profile, this::removeGuest);
+    }
+
+    /**
+     * Finds the class and the member of an attendance operation and carries it out while holding
+     * the lock of the member's stripe and then the lock of the class, so the checks and the change
+     * are atomic with respect to every other operation on the same member or class.
+     * Locks are always taken in that order, and each operation holds one of each, so they cannot deadlock.
+     *
+     * @param offer The class name.
+     * @param instructor The instructor.
+     * @param studio The studio.
+     * @param profile The profile of the member.
+     * @param operation The checks and change to carry out on the member and the class.
+     * @return The result of the operation, or NO_CLASS, NOT_MEMBER or EXPIRED.
+     */
+    private Result checkIn(Offer offer, Instructor instructor, Location studio, Profile profile, Rule operation) {
+        Result result;
+        state.readLock().lock();
+        try {
+            FitnessClass fitnessClass = schedule.find(offer, instructor, studio);
+            if (fitnessClass == null) {
+                return new Result(Outcome.NO_CLASS, profile, null, null);
+            }
+            Result found = findMember(profile);
+            if (!found.isSuccess()) {
+                return found;
+            }
+            Member member = found.member();
+            ReentrantLock stripe = memberLocks[member.getId() & (memberLocks.length - 1)];
+            stripe.lock();
+            try {
+                synchronized (fitnessClass) {
+                    result = operation.apply(member, fitnessClass);
+                }
+            } finally {
+                stripe.unlock();
+            }
+        } finally {
+            state.readLock().unlock();
+        }
+        checkpointIfNeeded();
+        return result;
+    }
+
+    /**
+     * Records a member as attending a class. Called with the member and class locked.
+     *
+     * @param member The member.
+     * @param fitnessClass The class.
+     * @return ATTENDANCE_RECORDED, or why the attendance was not recorded.
+     */
+    private Result recordAttendance(Member member, FitnessClass fitnessClass) {
+        if (member instanceof Basic && member.getHomeStudio() != fitnessClass.getStudio()) {
+            return result(Outcome.HOME_STUDIO_ONLY, member, fitnessClass);
+        }
+        if (fitnessClass.hasMember(member)) {
+            return result(Outcome.ALREADY_IN_CLASS, member, fitnessClass);
+        }
+        if (schedule.hasTimeConflict(member, fitnessClass.getTime())) {
+            return result(Outcome.TIME_CONFLICT, member, fitnessClass);
+        }
+        fitnessClass.addMember(member);
+        journal(log -> log.attendanceRecorded(fitnessClass, member));
+        if (member instanceof Basic basic) {
+            basic.setNumClasses(basic.getNumClasses() + 1);
+            journal(log -> log.memberStateChanged(member));
+        }
+        return result(Outcome.ATTENDANCE_RECORDED, member, fitnessClass);
+    }
+
+    /**
+     * Removes a member from a class. Called with the member and class locked.
+     *
+     * @param member The member.
+     * @param fitnessClass The class.
+     * @return ATTENDANCE_REMOVED, or why the member was not removed.
+     */
+    private Result removeAttendance(Member member, FitnessClass fitnessClass) {
+        if (!fitnessClass.hasMember(member)) {
+            return result(Outcome.NOT_IN_CLASS, member, fitnessClass);
+        }
+        fitnessClass.removeMember(member);
+        journal(log -> log.attendanceRemoved(fitnessClass, member));
+        return result(Outcome.ATTENDANCE_REMOVED, member, fitnessClass);
+    }
+
+    /**
+     * Records a guest of a member as attending a class. Called with the member and class locked.
+     * The pass is taken with a compare-and-set, so even a caller that bypasses the locks cannot spend it twice.
+     *
+     * @param member The member bringing the guest.
+     * @param fitnessClass The class.
+     * @return GUEST_RECORDED, or why the guest was not recorded.
+     */
+    private Result recordGuest(Member member, FitnessClass fitnessClass) {
+        if (getGuestPass(member) <= 0) {
+            return result(Outcome.NO_GUEST_PASS, member, fitnessClass);
+        }
+        if (member.getHomeStudio() != fitnessClass.getStudio()) {
+            return result(Outcome.GUEST_HOME_STUDIO_ONLY, member, fitnessClass);
+        }
+        if (fitnessClass.hasGuest(member)) {
+            return result(Outcome.ALREADY_GUEST, member, fitnessClass);
+        }
+        boolean used = switch (member) {
+            case Family family -> family.useGuest();
+            case Premium premium -> premium.useGuestPass();
+            default -> false;
+        };
+        if (!used) {
+            return result(Outcome.NO_GUEST_PASS, member, fitnessClass);
+        }
+        fitnessClass.addGuest(member);
+        journal(log -> log.guestRecorded(fitnessClass, member));
+        journal(log -> log.memberStateChanged(member));
+        return result(Outcome.GUEST_RECORDED, member, fitnessClass);
+    }
+
+    /**
+     * Removes a guest of a member from a class, giving the guest pass back. Called with the member and class locked.
+     *
+     * @param member The member who brought the guest.
+     * @param fitnessClass The class.
+     * @return GUEST_REMOVED, or why the guest was not removed.
+     */
+    private Result removeGuest(Member member, FitnessClass fitnessClass) {
+        if (!fitnessClass.hasGuest(member)) {
+            return result(Outcome.NOT_GUEST, member, fitnessClass);
+        }
+        fitnessClass.removeGuest(member);
+        journal(log -> log.guestRemoved(fitnessClass, member));
+        switch (member) {
+            case Family family -> family.returnGuest();
+            case Premium premium -> premium.returnGuestPass();
+            default -> {}
+        }
+        journal(log -> log.memberStateChanged(member));
+        return result(Outcome.GUEST_REMOVED, member, fitnessClass);
+    }
+
+    /**
+     * Returns the number of guest passes available to a member.
+     *
+     * @param member The member.
+     * @return The number of guest passes available, 0 for a Basic member.
+     */
+    public static int getGuestPass(Member member) {
+        return switch (member) {
+            case Family family -> family.getGuest() ? 1 : 0;
+            case Premium premium -> premium.getGuestPass();
+            default -> 0;
+        };
+    }
+
+    /**
+     * Saves the current state as a snapshot and empties the attendance log, if there is one.
+     *
+     * @throws IOException If the snapshot cannot be saved.
+     */
+    public void checkpoint() throws IOException {
+        if (attendanceLog == null) {
+            return;
+        }
+        state.writeLock().lock();
+        try {
+            attendanceLog.checkpoint(memberList, schedule);
+        } finally {
+            state.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs an action that reads the member list or the schedule while neither is being loaded or added to,
+     * e.g. listing the classes. Attendance operations keep running, so rosters may change meanwhile.
+     *
+     * @param action The action.
+     * @param <T> The type of the result.
+     * @return The result of the action.
+     */
+    public <T> T shared(Supplier<T> action) {
+        state.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            state.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs an action while no other operation is in progress, e.g. writing a report of the members
+     * and class rosters while other threads are checking members in.
+     *
+     * @param action The action.
+     * @param <T> The type of the result.
+     * @return The result of the action.
+     */
+    public <T> T exclusive(Supplier<T> action) {
+        state.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            state.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the result of an operation on a member and a class.
+     *
+     * @param outcome The outcome.
+     * @param member The member.
+     * @param fitnessClass The class.
+     * @return The result.
+     */
+    private static Result result(Outcome outcome, Member member, FitnessClass fitnessClass) {
+        return new Result(outcome, member.getProfile(), member, fitnessClass);
+    }
+
+    /**
+     * Records a change in the attendance log. Called with the member and class concerned locked,
+     * so changes to the same member or class are logged in the order they were made.
+     *
+     * @param event The change to log.
+     */
+    private void journal(Consumer<AttendanceLog> event) {
+        if (attendanceLog != null) {
+            event.accept(attendanceLog);
+        }
+    }
+
+    /**
+     * Takes a checkpoint if enough changes have accumulated in the attendance log. Called with no lock held,
+     * since a checkpoint waits for every operation in progress to finish.
+     * A checkpoint that fails is logged and tried again after the next change; the log still holds every change.
+     */
+    private void checkpointIfNeeded() {
+        if (attendanceLog == null || !attendanceLog.needsCheckpoint()) {
+            return;
+        }
+        state.writeLock().lock();
+        try {
+            if (attendanceLog.needsCheckpoint()) {
+                attendanceLog.checkpoint(memberList, schedule);
+            } // another thread may have taken it while this one waited
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Checkpoint failed; the attendance log keeps growing until one succeeds", e);
+        } finally {
+            state.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The checks and change of an attendance operation, carried out with the member and the class locked.
+     */
+    private interface Rule {
+        Result apply(Member member, FitnessClass fitnessClass);
+    }
+}
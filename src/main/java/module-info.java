@@ -1,6 +1,8 @@
 module fitness.studiomanager {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.logging;
+    requires jdk.httpserver;
 
 
     opens fitness.studiomanager to javafx.fxml;
@@ -0,0 +1,119 @@
+package fitness.studiomanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the attendance log brings back the changes made since the last checkpoint after a restart.
+ *
+ * @author Woogyeom Sim
+ */
+class AttendanceLogTest {
+    private static final Profile JOHN = new Profile("John", "Doe", new Date(1, 20, 2004));
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Returns a log over the files of the temporary directory.
+     *
+     * @return The log, not yet recovered.
+     */
+    private AttendanceLog log() {
+        return new AttendanceLog(dir.resolve("studiomanager.log"), dir.resolve("studiomanager.snapshot"), 1000);
+    }
+
+    /**
+     * Recovers an empty state, adds a class, checkpoints it and logs a member who attends it.
+     *
+     * @throws IOException If the log cannot be written.
+     */
+    private void logAttendance() throws IOException {
+        try (AttendanceLog log = log()) {
+            Snapshot state = log.recover();
+            FitnessClass pilates = new FitnessClass(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, Time.MORNING);
+            state.getSchedule().add(pilates);
+            log.checkpoint(state.getMemberList(), state.getSchedule());
+
+            Basic member = new Basic(JOHN, new Date(12, 31, 2099), Location.EDISON);
+            state.getMemberList().add(member);
+            log.memberAdded(member);
+            pilates.addMember(member);
+            log.attendanceRecorded(pilates, member);
+            member.setNumClasses(1);
+            log.memberStateChanged(member);
+        } // closing syncs the records but takes no checkpoint
+    }
+
+    /**
+     * Checks that records logged after the last checkpoint are replayed on top of the snapshot.
+     *
+     * @throws IOException If the log cannot be written or recovered.
+     */
+    @Test
+    void replaysRecordsAfterTheSnapshot() throws IOException {
+        logAttendance();
+        assertTrue(Files.size(dir.resolve("studiomanager.log")) > 0);
+        try (AttendanceLog log = log()) {
+            Snapshot state = log.recover();
+            Member member = state.getMemberList().byId(state.getMemberList().idOf(JOHN));
+            assertEquals(1, assertInstanceOf(Basic.class, member).getNumClasses());
+            assertTrue(state.getSchedule().find(Offer.PILATES, Instructor.JENNIFER, Location.EDISON).hasMember(member));
+        }
+    }
+
+    /**
+     * Checks that a record torn by a crash is dropped and cut off, and that the log can be appended to afterwards.
+     *
+     * @throws IOException If the log cannot be written or recovered.
+     */
+    @Test
+    void dropsATornRecord() throws IOException {
+        logAttendance();
+        Path file = dir.resolve("studiomanager.log");
+        long valid = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 40, 0, 0, 0}, StandardOpenOption.APPEND);
+        try (AttendanceLog log = log()) {
+            Snapshot state = log.recover();
+            assertEquals(valid, Files.size(file));
+            Member member = state.getMemberList().byId(state.getMemberList().idOf(JOHN));
+            FitnessClass pilates = state.getSchedule().find(Offer.PILATES, Instructor.JENNIFER, Location.EDISON);
+            pilates.removeMember(member);
+            log.attendanceRemoved(pilates, member);
+        }
+        try (AttendanceLog log = log()) {
+            Snapshot state = log.recover();
+            Member member = state.getMemberList().byId(state.getMemberList().idOf(JOHN));
+            assertFalse(state.getSchedule().find(Offer.PILATES, Instructor.JENNIFER, Location.EDISON).hasMember(member));
+        }
+    }
+
+    /**
+     * Checks that a checkpoint moves the logged changes into the snapshot and empties the log.
+     *
+     * @throws IOException If the log cannot be written or recovered.
+     */
+    @Test
+    void checkpointEmptiesTheLog() throws IOException {
+        logAttendance();
+        try (AttendanceLog log = log()) {
+            Snapshot state = log.recover();
+            log.checkpoint(state.getMemberList(), state.getSchedule());
+            assertEquals(0, Files.size(dir.resolve("studiomanager.log")));
+        }
+        Snapshot snapshot = Snapshot.restore(dir.resolve("studiomanager.snapshot"));
+        Member member = snapshot.getMemberList().byId(snapshot.getMemberList().idOf(JOHN));
+        assertEquals(1, assertInstanceOf(Basic.class, member).getNumClasses());
+        assertTrue(snapshot.getSchedule().find(Offer.PILATES, Instructor.JENNIFER, Location.EDISON).hasMember(member));
+    }
+}
@@ -0,0 +1,109 @@
+package fitness.studiomanager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the running fee totals of BillingEngine always match billing every member of the published list.
+ *
+ * @author Woogyeom Sim
+ */
+class BillingEngineTest {
+    private MemberList memberList;
+    private StudioService service;
+
+    /**
+     * Creates a service over Basic, Family and Premium members at studios in different counties.
+     */
+    @BeforeEach
+    void setUp() {
+        memberList = new MemberList();
+        for (int i = 0; i < 6; i++) {
+            memberList.add(member("BFP".charAt(i % 3), "Member" + i, Location.values()[i % Location.values().length]));
+        }
+        service = new StudioService(memberList, new Schedule());
+    }
+
+    /**
+     * Returns a member whose membership never expires.
+     *
+     * @param type The membership type, B, F or P.
+     * @param fname The first name.
+     * @param studio The home studio.
+     * @return The member.
+     */
+    private static Member member(char type, String fname, Location studio) {
+        Profile profile = new Profile(fname, "Doe", new Date(1, 20, 1990));
+        Date expire = new Date(12, 31, 2099);
+        return switch (type) {
+            case 'F' -> new Family(profile, expire, studio);
+            case 'P' -> new Premium(profile, expire, studio);
+            default -> new Basic(profile, expire, studio);
+        };
+    }
+
+    /**
+     * Checks every total of the billing engine of the service against billing the members of a list.
+     *
+     * @param expected The member list the totals must match.
+     */
+    private void assertTotalsMatch(MemberList expected) {
+        BillingEngine billing = service.getBilling();
+        long total = 0;
+        long[] byStudio = new long[Location.values().length];
+        for (int i = 0; i < expected.getSize(); i++) {
+            Member member = expected.getMember(i);
+            long cents = Math.round(member.bill() * 100);
+            total += cents;
+            byStudio[member.getHomeStudio().ordinal()] += cents;
+        }
+        assertEquals(total, billing.getTotal());
+        for (Location studio : Location.values()) {
+            assertEquals(byStudio[studio.ordinal()], billing.getStudioTotal(studio), studio.name());
+        }
+    }
+
+    /**
+     * Checks that adding and removing members and Basic classes past the plan keep the totals exact.
+     */
+    @Test
+    void tracksAddsRemovesAndBillChanges() {
+        assertTotalsMatch(memberList);
+        Basic basic = (Basic) memberList.getMember(0);
+        basic.setNumClasses(7);
+        assertTotalsMatch(memberList);
+        memberList.add(member('P', "Late", Location.EDISON));
+        memberList.remove(memberList.getMember(1));
+        assertTotalsMatch(memberList);
+        memberList.remove(basic);
+        basic.setNumClasses(9); // no longer counted
+        assertTotalsMatch(memberList);
+    }
+
+    /**
+     * Checks that a copy loaded in the background leaves the totals of the original alone, and that the totals
+     * follow the copy once it is published, whichever list a shared member is removed from.
+     */
+    @Test
+    void followsTheCopyOncePublished() {
+        MemberList copy = new MemberList(memberList);
+        Basic shared = (Basic) memberList.getMember(0);
+        Member dropped = memberList.getMember(1);
+        Basic oldOnly = (Basic) memberList.getMember(3);
+        copy.add(member('F', "Loaded", Location.BRIDGEWATER));
+        copy.remove(oldOnly);
+        memberList.remove(dropped);
+        shared.setNumClasses(6);
+        assertTotalsMatch(memberList);
+
+        service = service.withState(copy, service.getSchedule());
+        assertTotalsMatch(copy);
+        shared.setNumClasses(8);
+        assertTotalsMatch(copy);
+        oldOnly.setNumClasses(5); // only in the old list, which no longer counts
+        memberList.remove(shared);
+        assertTotalsMatch(copy);
+    }
+}
@@ -0,0 +1,177 @@
+package fitness.studiomanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers one StudioService with attendance and guest operations from many threads at once, the way several
+ * front-desk terminals would, and then checks that the club's rules held: no member attends two classes at the
+ * same time, no Premium member has more than 3 guests out or a negative pass count, no Family member has more
+ * than 1, and every Basic member's class count matches the attendance recorded for them.
+ * Few members and classes are used on purpose, so threads contend for the same locks.
+ *
+ * @author Woogyeom Sim
+ */
+class CheckInStressTest {
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int OPERATIONS = 20_000; // per thread
+    private static final int MEMBERS = 48;
+    private static final Offer[] OFFERS = Offer.values();
+    private static final Instructor[] INSTRUCTORS = Instructor.values();
+    private static final Location[] LOCATIONS = Location.values();
+    private static final Time[] TIMES = Time.values();
+
+    private final StudioService service;
+    private final Profile[] profiles;
+    private final FitnessClass[] classes;
+    private final EnumMap<StudioService.Outcome, LongAdder> outcomes = new EnumMap<>(StudioService.Outcome.class);
+    private final AtomicIntegerArray basicAttendance; // attendance recorded by member ID
+
+    /**
+     * Constructs a stress run over a number of members, a third each of Basic, Family and Premium,
+     * and a schedule of every class and instructor at two studios.
+     */
+    CheckInStressTest() {
+        Schedule schedule = new Schedule();
+        int n = 0;
+        for (Offer offer : OFFERS) {
+            for (Instructor instructor : INSTRUCTORS) {
+                for (int studio = 0; studio < 2; studio++) {
+                    schedule.add(new FitnessClass(offer, instructor, LOCATIONS[studio], TIMES[n++ % TIMES.length]));
+                }
+            }
+        }
+        service = new StudioService(new MemberList(MEMBERS), schedule);
+        profiles = new Profile[MEMBERS];
+        for (int i = 0; i < MEMBERS; i++) {
+            profiles[i] = new Profile("Member" + i, "Stress", new Date(1, 1 + i % 28, 1990));
+            service.addMember("BFP".charAt(i % 3), profiles[i], LOCATIONS[i % 2]);
+        }
+        classes = new FitnessClass[schedule.getNumClasses()];
+        System.arraycopy(schedule.getClasses(), 0, classes, 0, classes.length);
+        basicAttendance = new AtomicIntegerArray(MEMBERS);
+        for (StudioService.Outcome outcome : StudioService.Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Checks that the rules hold after threads that all start together have run random operations.
+     *
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    @Test
+    void rulesHoldUnderConcurrentCheckIns() throws InterruptedException {
+        run(THREADS, OPERATIONS);
+        long total = 0;
+        for (LongAdder count : outcomes.values()) {
+            total += count.sum();
+        }
+        assertEquals((long) THREADS * OPERATIONS, total);
+        assertTrue(outcomes.get(StudioService.Outcome.ATTENDANCE_RECORDED).sum() > 0);
+        assertTrue(outcomes.get(StudioService.Outcome.GUEST_RECORDED).sum() > 0);
+        List<String> violations = verify();
+        assertTrue(violations.isEmpty(), String.join("\n", violations));
+    }
+
+    /**
+     * Runs random operations from several threads that all start together.
+     *
+     * @param threads The number of threads.
+     * @param operations The number of operations per thread.
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    private void run(int threads, int operations) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operations; i++) {
+                    step(random);
+                }
+            }, "terminal-" + t);
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * Carries out one random operation on a random member and class.
+     *
+     * @param random The random number generator of the calling thread.
+     */
+    private void step(ThreadLocalRandom random) {
+        Profile profile = profiles[random.nextInt(profiles.length)];
+        FitnessClass fitnessClass = classes[random.nextInt(classes.length)];
+        Offer offer = fitnessClass.getClassInfo();
+        Instructor instructor = fitnessClass.getInstructor();
+        Location studio = fitnessClass.getStudio();
+        StudioService.Result result = switch (random.nextInt(4)) {
+            case 0 -> service.recordAttendance(offer, instructor, studio, profile);
+            case 1 -> service.removeAttendance(offer, instructor, studio, profile);
+            case 2 -> service.recordGuest(offer, instructor, studio, profile);
+            default -> service.removeGuest(offer, instructor, studio, profile);
+        };
+        outcomes.get(result.outcome()).increment();
+        if (result.outcome() == StudioService.Outcome.ATTENDANCE_RECORDED && result.member() instanceof Basic) {
+            basicAttendance.incrementAndGet(result.member().getId());
+        }
+    }
+
+    /**
+     * Checks the rules against the final state.
+     *
+     * @return A description of every violation.
+     */
+    private List<String> verify() {
+        MemberList memberList = service.getMemberList();
+        List<String> violations = new ArrayList<>();
+        for (Profile profile : profiles) {
+            Member member = memberList.byId(memberList.idOf(profile));
+            int guests = 0;
+            int[] atTime = new int[TIMES.length];
+            for (FitnessClass fitnessClass : classes) {
+                if (fitnessClass.hasGuest(member)) {
+                    guests++;
+                }
+                if (fitnessClass.hasMember(member)) {
+                    atTime[fitnessClass.getTime().ordinal()]++;
+                }
+            }
+            for (Time time : TIMES) {
+                if (atTime[time.ordinal()] > 1 || member.isBooked(time) != (atTime[time.ordinal()] == 1)) {
+                    violations.add(profile + " attends " + atTime[time.ordinal()] + " classes at " + time);
+                }
+            }
+            boolean passesMatch = switch (member) {
+                case Premium premium -> premium.getGuestPass() >= 0 && premium.getGuestPass() + guests == 3;
+                case Family family -> (family.getGuest() ? 1 : 0) + guests == 1;
+                case Basic basic -> guests == 0 && basic.getNumClasses() == basicAttendance.get(member.getId());
+                default -> true;
+            };
+            if (!passesMatch) {
+                violations.add(member + " has " + guests + " guests in classes");
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,54 @@
+package fitness.studiomanager;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the validation and ordering of the packed Date.
+ *
+ * @author Woogyeom Sim
+ */
+class DateTest {
+    /**
+     * Checks the calendar rules, including leap years.
+     */
+    @Test
+    void validatesCalendarDates() {
+        assertTrue(new Date(2, 29, 2000).isValid());
+        assertTrue(new Date(12, 31, 2023).isValid());
+        assertFalse(new Date(2, 29, 2023).isValid());
+        assertFalse(new Date(4, 31, 2023).isValid());
+        assertFalse(new Date(13, 15, 2023).isValid());
+        assertFalse(new Date(0, 15, 2023).isValid());
+    }
+
+    /**
+     * Checks that fields too large or negative to be packed make the date invalid instead of being clamped.
+     */
+    @Test
+    void rejectsFieldsOutOfPackedRange() {
+        assertFalse(new Date(1, 1, 40000).isValid());
+        assertFalse(new Date(1, 1, -2024).isValid());
+        assertFalse(new Date(257, 1, 2024).isValid());
+        assertFalse(new Date(1, -1, 2024).isValid());
+        Date date = new Date(1, 1, 2024);
+        date.setYear(1 << 20);
+        assertFalse(date.isValid());
+    }
+
+    /**
+     * Checks that packed dates order like the calendar and unpack to an equal date.
+     */
+    @Test
+    void packedDatesOrderLikeTheCalendar() {
+        Date earlier = new Date(12, 31, 2023);
+        Date later = new Date(1, 1, 2024);
+        assertTrue(earlier.compareTo(later) < 0);
+        assertTrue(earlier.pack() < later.pack());
+        assertEquals(later, Date.unpack(later.pack()));
+        assertEquals("1/1/2024", Date.unpack(later.pack()).toString());
+    }
+}
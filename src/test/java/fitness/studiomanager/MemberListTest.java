@@ -0,0 +1,87 @@
+package fitness.studiomanager;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the profile index and the ID registry of MemberList.
+ *
+ * @author Woogyeom Sim
+ */
+class MemberListTest {
+    /**
+     * Returns a Basic member at Bridgewater.
+     *
+     * @param fname The first name.
+     * @param lname The last name.
+     * @return The member.
+     */
+    private static Member member(String fname, String lname) {
+        return new Basic(new Profile(fname, lname, new Date(1, 20, 2004)), new Date(12, 31, 2099), Location.BRIDGEWATER);
+    }
+
+    /**
+     * Checks that profiles are found ignoring case and duplicates are rejected.
+     */
+    @Test
+    void findMatchesProfilesIgnoringCase() {
+        MemberList memberList = new MemberList();
+        assertTrue(memberList.add(member("John", "Doe")));
+        assertTrue(memberList.contains(member("JOHN", "doe")));
+        assertFalse(memberList.add(member("john", "DOE")));
+        assertFalse(memberList.contains(member("Jane", "Doe")));
+        assertEquals(1, memberList.getSize());
+    }
+
+    /**
+     * Checks that removal keeps the storage order of the other members and the index pointing at every position.
+     */
+    @Test
+    void removeKeepsTheStorageOrder() {
+        MemberList memberList = new MemberList();
+        for (int i = 0; i < 5; i++) {
+            memberList.add(member("Member" + i, "Doe"));
+        }
+        assertTrue(memberList.remove(member("Member1", "Doe")));
+        assertFalse(memberList.remove(member("Member1", "Doe")));
+        assertEquals(4, memberList.getSize());
+        String[] expected = {"Member0", "Member2", "Member3", "Member4"};
+        for (int i = 0; i < memberList.getSize(); i++) {
+            assertEquals(expected[i], memberList.getMember(i).getProfile().getFname());
+            assertEquals(i, memberList.find(memberList.getMember(i)));
+        }
+        assertTrue(memberList.remove(member("Member4", "Doe")));
+        assertTrue(memberList.remove(member("Member0", "Doe")));
+        assertEquals(2, memberList.getSize());
+        assertEquals("Member2", memberList.getMember(0).getProfile().getFname());
+        assertEquals("Member3", memberList.getMember(1).getProfile().getFname());
+        assertEquals(1, memberList.find(member("Member3", "Doe")));
+    }
+
+    /**
+     * Checks that a member keeps its ID and a removed member's ID is not given out again.
+     */
+    @Test
+    void idsStayWithMembersAndAreNeverReused() {
+        MemberList memberList = new MemberList();
+        Member first = member("First", "Doe");
+        Member second = member("Second", "Doe");
+        memberList.add(first);
+        memberList.add(second);
+        assertEquals(0, first.getId());
+        assertEquals(1, second.getId());
+        memberList.remove(first);
+        assertNull(memberList.byId(0));
+        assertSame(second, memberList.byId(1));
+        assertEquals(1, memberList.idOf(second.getProfile()));
+        assertEquals(Member.NO_ID, memberList.idOf(first.getProfile()));
+        Member third = member("Third", "Doe");
+        memberList.add(third);
+        assertEquals(2, third.getId());
+    }
+}
@@ -0,0 +1,113 @@
+package fitness.studiomanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that names compared through the NameDictionary order exactly as compareToIgnoreCase does,
+ * and that Profile equality, hashing and ordering agree with the string comparisons they replaced.
+ *
+ * @author Woogyeom Sim
+ */
+class NameDictionaryTest {
+    private static final String[] NAMES = {
+            "smith", "Smith", "SMITH", "Smyth", "smithson", "Smith-Jones", "Smith_Jones", "McDonald", "mcdonald",
+            "Mc Donald", "O'Brien", "de la Cruz", "De La Cruz", "Zoe", "Zoë", "ZOË", "Élodie", "élodie", "Elodie",
+            "a", "A", "Aa", "aA", "Z", "z", "[Bracket]", "Straße", "STRASSE"
+    };
+
+    /**
+     * Checks that comparing the codes of two names has the sign of compareToIgnoreCase for every pair.
+     *
+     * @param names The names.
+     */
+    private static void assertOrderMatches(List<String> names) {
+        int[] codes = new int[names.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = NameDictionary.intern(names.get(i));
+        }
+        for (int i = 0; i < codes.length; i++) {
+            for (int j = 0; j < codes.length; j++) {
+                String pair = names.get(i) + " vs " + names.get(j);
+                assertEquals(Integer.signum(names.get(i).compareToIgnoreCase(names.get(j))),
+                        Integer.signum(NameDictionary.compare(codes[i], codes[j])), pair);
+                assertEquals(names.get(i).equalsIgnoreCase(names.get(j)),
+                        NameDictionary.foldId(codes[i]) == NameDictionary.foldId(codes[j]), pair);
+            }
+        }
+    }
+
+    /**
+     * Checks that interning keeps every spelling and gives the same spelling the same code.
+     */
+    @Test
+    void internKeepsEverySpelling() {
+        for (String name : NAMES) {
+            int code = NameDictionary.intern(name);
+            assertEquals(code, NameDictionary.intern(new String(name)));
+            assertEquals(name, NameDictionary.name(code));
+        }
+    }
+
+    /**
+     * Checks the order of names that differ in case, accents and punctuation.
+     */
+    @Test
+    void compareMatchesCompareToIgnoreCase() {
+        assertOrderMatches(List.of(NAMES));
+    }
+
+    /**
+     * Checks that names added after the ranks were built, sorting between and around the ranked ones,
+     * are ranked as soon as they are compared, and the names ranked before keep their order.
+     */
+    @Test
+    void namesAddedAfterARebuildAreRanked() {
+        List<String> names = new ArrayList<>(List.of("Rebuild-B", "Rebuild-D", "Rebuild-F"));
+        assertOrderMatches(names);
+        names.addAll(List.of("rebuild-c", "REBUILD-E", "Rebuild-A", "rebuild-g", "rebuild-d"));
+        assertOrderMatches(names);
+        names.add("REBUILD-CC");
+        assertOrderMatches(names);
+    }
+
+    /**
+     * Checks Profile against the comparisons of the baseline: last name, first name and date of birth,
+     * names compared with compareToIgnoreCase. Profiles that compare equal are equal and hash alike.
+     */
+    @Test
+    void profilesOrderAsBeforeTheDictionary() {
+        String[] lnames = {"Smith", "smith", "SMITH", "Smyth", "O'Brien", "de la Cruz"};
+        String[] fnames = {"Ann", "ann", "ANNA", "Bob"};
+        Date[] dobs = {new Date(1, 20, 1990), new Date(1, 21, 1990), new Date(12, 1, 1985)};
+        List<Profile> profiles = new ArrayList<>();
+        for (String lname : lnames) {
+            for (String fname : fnames) {
+                for (Date dob : dobs) {
+                    profiles.add(new Profile(fname, lname, dob));
+                }
+            }
+        }
+        for (Profile p : profiles) {
+            for (Profile q : profiles) {
+                int expected = p.getLname().compareToIgnoreCase(q.getLname());
+                if (expected == 0) {
+                    expected = p.getFname().compareToIgnoreCase(q.getFname());
+                }
+                if (expected == 0) {
+                    expected = p.getDob().compareTo(q.getDob());
+                }
+                String pair = p + " vs " + q;
+                assertEquals(Integer.signum(expected), Integer.signum(p.compareTo(q)), pair);
+                assertEquals(expected == 0, p.equals(q), pair);
+                if (expected == 0) {
+                    assertEquals(p.hashCode(), q.hashCode(), pair);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package fitness.studiomanager;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that Roster keeps its member IDs sorted and free of duplicates through adds, removals and set operations.
+ *
+ * @author Woogyeom Sim
+ */
+class RosterTest {
+    /**
+     * Returns a roster holding member IDs, added in the given order.
+     *
+     * @param ids The member IDs.
+     * @return The roster.
+     */
+    private static Roster roster(int... ids) {
+        Roster roster = new Roster();
+        for (int id : ids) {
+            roster.add(id);
+        }
+        return roster;
+    }
+
+    /**
+     * Checks that IDs added in any order, at the front, middle and end, are kept in increasing order.
+     */
+    @Test
+    void addKeepsIdsSorted() {
+        Roster roster = roster(5, 1, 9, 3, 7, 0, 10);
+        assertArrayEquals(new int[] {0, 1, 3, 5, 7, 9, 10}, roster.toArray());
+        assertEquals(7, roster.getSize());
+        assertEquals(3, roster.getId(2));
+        assertTrue(roster.contains(9));
+        assertFalse(roster.contains(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> roster.getId(7));
+        assertThrows(IllegalArgumentException.class, () -> roster.add(Member.NO_ID));
+    }
+
+    /**
+     * Checks that an ID already in the roster is not added twice.
+     */
+    @Test
+    void addRejectsDuplicates() {
+        Roster roster = roster(2, 4);
+        assertFalse(roster.add(4));
+        assertFalse(roster.add(2));
+        assertTrue(roster.add(3));
+        assertArrayEquals(new int[] {2, 3, 4}, roster.toArray());
+    }
+
+    /**
+     * Checks that removing the first, a middle and the last ID closes the gap, and missing IDs are left alone.
+     */
+    @Test
+    void removeClosesTheGap() {
+        Roster roster = roster(1, 2, 3, 4, 5);
+        assertFalse(roster.remove(6));
+        assertFalse(roster.remove(0));
+        assertTrue(roster.remove(3));
+        assertFalse(roster.remove(3));
+        assertArrayEquals(new int[] {1, 2, 4, 5}, roster.toArray());
+        assertTrue(roster.remove(1));
+        assertTrue(roster.remove(5));
+        assertArrayEquals(new int[] {2, 4}, roster.toArray());
+        assertTrue(roster.remove(2));
+        assertTrue(roster.remove(4));
+        assertTrue(roster.isEmpty());
+        assertFalse(new Roster().remove(0));
+        assertTrue(roster.add(8));
+        assertArrayEquals(new int[] {8}, roster.toArray());
+    }
+
+    /**
+     * Checks that the roster grows past its initial capacity many times over without losing IDs.
+     */
+    @Test
+    void growsWithoutLosingIds() {
+        Roster roster = new Roster();
+        for (int id = 999; id >= 0; id -= 2) {
+            assertTrue(roster.add(id));
+        }
+        for (int id = 0; id < 1000; id += 2) {
+            assertTrue(roster.add(id));
+        }
+        assertEquals(1000, roster.getSize());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, roster.getId(i));
+        }
+    }
+
+    /**
+     * Checks the common IDs of two rosters, including disjoint and empty ones, and that the result can grow.
+     */
+    @Test
+    void intersectKeepsCommonIds() {
+        Roster first = roster(1, 3, 5, 7, 9);
+        Roster second = roster(2, 3, 4, 9, 11);
+        assertArrayEquals(new int[] {3, 9}, first.intersect(second).toArray());
+        assertArrayEquals(new int[] {3, 9}, second.intersect(first).toArray());
+        assertTrue(first.intersect(roster(2, 4, 6)).isEmpty());
+        assertTrue(first.intersect(new Roster()).isEmpty());
+        Roster none = new Roster().intersect(first);
+        assertTrue(none.add(4));
+        assertArrayEquals(new int[] {4}, none.toArray());
+    }
+
+    /**
+     * Checks that a union holds every ID of either roster once, in order, and leaves both rosters unchanged.
+     */
+    @Test
+    void unionMergesWithoutDuplicates() {
+        Roster first = roster(1, 3, 5, 9);
+        Roster second = roster(0, 3, 4, 9, 11);
+        Roster union = first.union(second);
+        assertArrayEquals(new int[] {0, 1, 3, 4, 5, 9, 11}, union.toArray());
+        assertArrayEquals(union.toArray(), second.union(first).toArray());
+        assertArrayEquals(new int[] {1, 3, 5, 9}, first.union(new Roster()).toArray());
+        assertArrayEquals(new int[] {1, 3, 5, 9}, first.toArray());
+        assertTrue(union.add(2));
+        assertFalse(union.add(11));
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 9, 11}, union.toArray());
+    }
+}
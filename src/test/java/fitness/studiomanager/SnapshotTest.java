@@ -0,0 +1,134 @@
+package fitness.studiomanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests saving and restoring the binary snapshot of a member list and a schedule.
+ *
+ * @author Woogyeom Sim
+ */
+class SnapshotTest {
+    private static final Date EXPIRE = new Date(12, 31, 2099);
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Returns a profile born on 1/20/2004.
+     *
+     * @param fname The first name.
+     * @return The profile.
+     */
+    private static Profile profile(String fname) {
+        return new Profile(fname, "Doe", new Date(1, 20, 2004));
+    }
+
+    /**
+     * Checks that members, their IDs and state, and class rosters survive a save and restore.
+     *
+     * @throws IOException If the snapshot cannot be saved or restored.
+     */
+    @Test
+    void restoresMembersIdsAndRosters() throws IOException {
+        MemberList memberList = new MemberList();
+        Basic basic = new Basic(profile("Basic"), EXPIRE, Location.EDISON);
+        basic.setNumClasses(6);
+        Member removed = new Family(profile("Removed"), EXPIRE, Location.EDISON);
+        Family family = new Family(profile("Family"), EXPIRE, Location.FRANKLIN);
+        family.setGuest(false);
+        Premium premium = new Premium(profile("Premium"), EXPIRE, Location.SOMERVILLE);
+        premium.setGuestPass(1);
+        memberList.add(basic);
+        memberList.add(removed);
+        memberList.add(family);
+        memberList.add(premium);
+        memberList.remove(removed);
+        Schedule schedule = new Schedule();
+        FitnessClass pilates = new FitnessClass(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, Time.MORNING);
+        pilates.addMember(basic);
+        pilates.addMember(premium);
+        pilates.addGuest(family);
+        schedule.add(pilates);
+
+        Path file = dir.resolve("studiomanager.snapshot");
+        new Snapshot(memberList, schedule, 42).save(file);
+        Snapshot restored = Snapshot.restore(file);
+
+        assertEquals(42, restored.getSequence());
+        MemberList restoredList = restored.getMemberList();
+        assertEquals(3, restoredList.getSize());
+        assertNull(restoredList.byId(removed.getId()));
+        Basic restoredBasic = assertInstanceOf(Basic.class, restoredList.byId(basic.getId()));
+        assertEquals(6, restoredBasic.getNumClasses());
+        assertEquals(Location.EDISON, restoredBasic.getHomeStudio());
+        assertFalse(assertInstanceOf(Family.class, restoredList.byId(family.getId())).getGuest());
+        assertEquals(1, assertInstanceOf(Premium.class, restoredList.byId(premium.getId())).getGuestPass());
+        assertEquals(premium.getId(), restoredList.idOf(profile("PREMIUM")));
+
+        FitnessClass restoredPilates = restored.getSchedule().find(Offer.PILATES, Instructor.JENNIFER, Location.EDISON);
+        assertEquals(Time.MORNING, restoredPilates.getTime());
+        assertTrue(restoredPilates.hasMember(restoredBasic));
+        assertTrue(restoredPilates.hasMember(restoredList.byId(premium.getId())));
+        assertTrue(restoredPilates.hasGuest(restoredList.byId(family.getId())));
+
+        Member added = new Basic(profile("Added"), EXPIRE, Location.EDISON);
+        restoredList.add(added);
+        assertEquals(4, added.getId()); // the ID of the removed member is not handed out again
+    }
+
+    /**
+     * Checks that a file that is not a snapshot is rejected.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("memberList.txt");
+        Files.writeString(file, "B John Doe 1/20/2004 3/30/2025 bridgewater\n");
+        assertThrows(IOException.class, () -> Snapshot.restore(file));
+    }
+
+    /**
+     * Checks that a snapshot of another format version is rejected.
+     *
+     * @throws IOException If the snapshot cannot be saved or patched.
+     */
+    @Test
+    void rejectsOtherVersions() throws IOException {
+        Path file = dir.resolve("studiomanager.snapshot");
+        new Snapshot(new MemberList(), new Schedule()).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[7]--; // the low byte of the version after the magic number
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> Snapshot.restore(file));
+    }
+
+    /**
+     * Checks that a truncated snapshot is rejected instead of restoring part of the state.
+     *
+     * @throws IOException If the snapshot cannot be saved or cut.
+     */
+    @Test
+    void rejectsTruncatedSnapshots() throws IOException {
+        MemberList memberList = new MemberList();
+        memberList.add(new Basic(profile("John"), EXPIRE, Location.EDISON));
+        Path file = dir.resolve("studiomanager.snapshot");
+        new Snapshot(memberList, new Schedule()).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> Snapshot.restore(file));
+    }
+}
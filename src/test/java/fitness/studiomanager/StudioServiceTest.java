@@ -0,0 +1,103 @@
+package fitness.studiomanager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the club's rules as enforced by StudioService, through the outcome of each operation.
+ *
+ * @author Woogyeom Sim
+ */
+class StudioServiceTest {
+    private static final Profile BASIC = new Profile("Basic", "Doe", new Date(1, 20, 1990));
+    private static final Profile FAMILY = new Profile("Family", "Doe", new Date(1, 20, 1990));
+    private static final Profile PREMIUM = new Profile("Premium", "Doe", new Date(1, 20, 1990));
+
+    private StudioService service;
+
+    /**
+     * Creates a service with a Basic, a Family and a Premium member at Edison, and classes at Edison and Franklin.
+     */
+    @BeforeEach
+    void setUp() {
+        Schedule schedule = new Schedule();
+        schedule.add(new FitnessClass(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, Time.MORNING));
+        schedule.add(new FitnessClass(Offer.SPINNING, Instructor.KIM, Location.EDISON, Time.MORNING));
+        schedule.add(new FitnessClass(Offer.CARDIO, Instructor.DAVIS, Location.EDISON, Time.AFTERNOON));
+        schedule.add(new FitnessClass(Offer.CARDIO, Instructor.DAVIS, Location.FRANKLIN, Time.EVENING));
+        service = new StudioService(new MemberList(), schedule);
+        service.addMember('B', BASIC, Location.EDISON);
+        service.addMember('F', FAMILY, Location.EDISON);
+        service.addMember('P', PREMIUM, Location.EDISON);
+    }
+
+    /**
+     * Checks that sign-ups are validated before a member is added.
+     */
+    @Test
+    void validatesNewMembers() {
+        assertEquals(StudioService.Outcome.ALREADY_MEMBER, service.addMember('P', new Profile("BASIC", "doe", new Date(1, 20, 1990)), Location.EDISON).outcome());
+        assertEquals(StudioService.Outcome.INVALID_DATE, service.addMember('B', new Profile("Jane", "Doe", new Date(2, 30, 1990)), Location.EDISON).outcome());
+        assertEquals(StudioService.Outcome.FUTURE_DATE, service.addMember('B', new Profile("Jane", "Doe", new Date(1, 1, 3000)), Location.EDISON).outcome());
+        assertEquals(StudioService.Outcome.UNDERAGE, service.addMember('B', new Profile("Jane", "Doe", new Date(1, 1, LocalDate.now().getYear() - 10)), Location.EDISON).outcome());
+        assertEquals(StudioService.Outcome.MEMBER_ADDED, service.addMember('B', new Profile("Jane", "Doe", new Date(2, 28, 1990)), Location.EDISON).outcome());
+    }
+
+    /**
+     * Checks the attendance rules: unknown members and classes, the home studio of Basic members,
+     * duplicates, time conflicts, and the classes counted towards a Basic bill.
+     */
+    @Test
+    void recordsAttendanceUnderTheRules() {
+        Profile stranger = new Profile("Jane", "Roe", new Date(1, 20, 1990));
+        assertEquals(StudioService.Outcome.NOT_MEMBER, service.recordAttendance(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, stranger).outcome());
+        assertEquals(StudioService.Outcome.NO_CLASS, service.recordAttendance(Offer.PILATES, Instructor.EMMA, Location.EDISON, BASIC).outcome());
+        assertEquals(StudioService.Outcome.HOME_STUDIO_ONLY, service.recordAttendance(Offer.CARDIO, Instructor.DAVIS, Location.FRANKLIN, BASIC).outcome());
+        assertEquals(StudioService.Outcome.ATTENDANCE_RECORDED, service.recordAttendance(Offer.CARDIO, Instructor.DAVIS, Location.FRANKLIN, PREMIUM).outcome());
+        assertEquals(StudioService.Outcome.ATTENDANCE_RECORDED, service.recordAttendance(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, BASIC).outcome());
+        assertEquals(StudioService.Outcome.ALREADY_IN_CLASS, service.recordAttendance(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, BASIC).outcome());
+        assertEquals(StudioService.Outcome.TIME_CONFLICT, service.recordAttendance(Offer.SPINNING, Instructor.KIM, Location.EDISON, BASIC).outcome());
+        assertEquals(StudioService.Outcome.ATTENDANCE_REMOVED, service.removeAttendance(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, BASIC).outcome());
+        assertEquals(StudioService.Outcome.NOT_IN_CLASS, service.removeAttendance(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, BASIC).outcome());
+        assertEquals(StudioService.Outcome.ATTENDANCE_RECORDED, service.recordAttendance(Offer.SPINNING, Instructor.KIM, Location.EDISON, BASIC).outcome());
+        Basic basic = (Basic) service.findMember(BASIC).member();
+        assertEquals(2, basic.getNumClasses());
+    }
+
+    /**
+     * Checks that guest passes are used up and given back, one for a Family member and three for a Premium member.
+     */
+    @Test
+    void usesAndReturnsGuestPasses() {
+        assertEquals(StudioService.Outcome.NO_GUEST_PASS, service.recordGuest(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, BASIC).outcome());
+        assertEquals(StudioService.Outcome.GUEST_HOME_STUDIO_ONLY, service.recordGuest(Offer.CARDIO, Instructor.DAVIS, Location.FRANKLIN, FAMILY).outcome());
+        assertEquals(StudioService.Outcome.GUEST_RECORDED, service.recordGuest(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, FAMILY).outcome());
+        assertEquals(StudioService.Outcome.NO_GUEST_PASS, service.recordGuest(Offer.CARDIO, Instructor.DAVIS, Location.EDISON, FAMILY).outcome());
+        assertEquals(StudioService.Outcome.GUEST_REMOVED, service.removeGuest(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, FAMILY).outcome());
+        assertEquals(StudioService.Outcome.NOT_GUEST, service.removeGuest(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, FAMILY).outcome());
+        assertEquals(1, StudioService.getGuestPass(service.findMember(FAMILY).member()));
+
+        assertEquals(StudioService.Outcome.GUEST_RECORDED, service.recordGuest(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, PREMIUM).outcome());
+        assertEquals(StudioService.Outcome.ALREADY_GUEST, service.recordGuest(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, PREMIUM).outcome());
+        assertEquals(StudioService.Outcome.GUEST_RECORDED, service.recordGuest(Offer.SPINNING, Instructor.KIM, Location.EDISON, PREMIUM).outcome());
+        assertEquals(StudioService.Outcome.GUEST_RECORDED, service.recordGuest(Offer.CARDIO, Instructor.DAVIS, Location.EDISON, PREMIUM).outcome());
+        assertEquals(0, StudioService.getGuestPass(service.findMember(PREMIUM).member()));
+        assertEquals(StudioService.Outcome.GUEST_REMOVED, service.removeGuest(Offer.SPINNING, Instructor.KIM, Location.EDISON, PREMIUM).outcome());
+        assertEquals(1, StudioService.getGuestPass(service.findMember(PREMIUM).member()));
+    }
+
+    /**
+     * Checks that an expired member can neither be found nor checked in.
+     */
+    @Test
+    void rejectsExpiredMembers() {
+        Profile expired = new Profile("Expired", "Doe", new Date(1, 20, 1990));
+        service.getMemberList().add(new Premium(expired, new Date(1, 1, 2000), Location.EDISON));
+        assertEquals(StudioService.Outcome.EXPIRED, service.findMember(expired).outcome());
+        assertEquals(StudioService.Outcome.EXPIRED, service.recordAttendance(Offer.PILATES, Instructor.JENNIFER, Location.EDISON, expired).outcome());
+    }
+}